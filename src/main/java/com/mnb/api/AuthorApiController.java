@@ -0,0 +1,61 @@
+package com.mnb.api;
+
+import com.mnb.dto.AuthorSummary;
+import com.mnb.entity.Author;
+import com.mnb.exception.NotFoundException;
+import com.mnb.service.AuthorService;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Read-only JSON view of the authors for integrations.
+ */
+@RestController
+@RequestMapping("/api/v1/authors")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class AuthorApiController {
+    final AuthorService authorService;
+
+    @Value("${library.api.page-size:50}")
+    int defaultPageSize = 50;
+
+    @Value("${library.api.max-page-size:500}")
+    int maxPageSize = 500;
+
+    public AuthorApiController(AuthorService authorService) {
+        this.authorService = authorService;
+    }
+
+    @GetMapping
+    public MappingJacksonValue list(@RequestParam(name = "after", required = false) Integer after,
+                                    @RequestParam(name = "size", required = false) Integer size,
+                                    @RequestParam(name = "fields", required = false) String fields) {
+        FieldSelection selection = FieldSelection.of(fields, AuthorSummary.class);
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        return selection.apply(authorService.findPage(after, pageSize));
+    }
+
+    @GetMapping("/{id}")
+    public MappingJacksonValue get(@PathVariable("id") int id,
+                                   @RequestParam(name = "fields", required = false) String fields) {
+        FieldSelection selection = FieldSelection.of(fields, AuthorSummary.class);
+        // the booksList collection is left out, the books of an author are a search away
+        Author author = authorService.getAuthor(id)
+                .orElseThrow(() -> new NotFoundException("Author not found with ID " + id));
+        return selection.apply(new AuthorSummary(author.getId(), author.getAuthorName(), author.getDescription()));
+    }
+
+    @GetMapping("/search")
+    public MappingJacksonValue search(@RequestParam("q") String keyword,
+                                      @RequestParam(name = "fields", required = false) String fields) {
+        FieldSelection selection = FieldSelection.of(fields, AuthorSummary.class);
+        return selection.apply(authorService.search(keyword));
+    }
+}
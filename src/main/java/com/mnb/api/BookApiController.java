@@ -0,0 +1,66 @@
+package com.mnb.api;
+
+import com.mnb.dto.BookPage;
+import com.mnb.dto.BookSummary;
+import com.mnb.dto.CursorPage;
+import com.mnb.entity.Book;
+import com.mnb.service.BookService;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Read-only JSON view of the books for integrations, served from the same services as the pages.
+ */
+@RestController
+@RequestMapping("/api/v1/books")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookApiController {
+    final BookService bookService;
+
+    @Value("${library.api.page-size:50}")
+    int defaultPageSize = 50;
+
+    @Value("${library.api.max-page-size:500}")
+    int maxPageSize = 500;
+
+    public BookApiController(BookService bookService) {
+        this.bookService = bookService;
+    }
+
+    @GetMapping
+    public MappingJacksonValue list(@RequestParam(name = "after", required = false) Integer after,
+                                    @RequestParam(name = "size", required = false) Integer size,
+                                    @RequestParam(name = "fields", required = false) String fields) {
+        FieldSelection selection = FieldSelection.of(fields, BookSummary.class);
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        BookPage page = bookService.findPage(after, null, pageSize);
+        return selection.apply(new CursorPage<>(page.getBooks(), page.getNextCursor(), page.getSize()));
+    }
+
+    @GetMapping("/{id}")
+    public MappingJacksonValue get(@PathVariable("id") int id,
+                                   @RequestParam(name = "fields", required = false) String fields) {
+        FieldSelection selection = FieldSelection.of(fields, BookSummary.class);
+        return selection.apply(summary(bookService.findById(id)));
+    }
+
+    // same ranking and result cache as /books/search
+    @GetMapping("/search")
+    public MappingJacksonValue search(@RequestParam("q") String keyword,
+                                      @RequestParam(name = "fields", required = false) String fields) {
+        FieldSelection selection = FieldSelection.of(fields, BookSummary.class);
+        return selection.apply(bookService.findBookByName(keyword).stream().map(BookApiController::summary).toList());
+    }
+
+    private static BookSummary summary(Book book) {
+        return new BookSummary(book.getId(), book.getBookName(), book.getBookSubname(), book.getSerialName(),
+                book.getBooksAuthor(), book.getBooksPublisher(), book.getDescription(), book.getIsbn());
+    }
+}
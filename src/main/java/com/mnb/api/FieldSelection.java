@@ -0,0 +1,73 @@
+package com.mnb.api;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.beans.BeanUtils;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.beans.PropertyDescriptor;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The {@code fields} parameter of the JSON API: a comma-separated list of the properties to
+ * return, e.g. {@code fields=id,bookName,isbn}; all properties are returned without it.
+ * <p>
+ * The DTOs name the {@link #FILTER} Jackson filter, so the unwanted properties are never
+ * serialised instead of being stripped afterwards.
+ */
+public final class FieldSelection {
+
+    public static final String FILTER = "fields";
+
+    private final SimpleBeanPropertyFilter filter;
+
+    private FieldSelection(SimpleBeanPropertyFilter filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Parses the parameter against the properties of {@code type}; call it before querying,
+     * so that a bad request costs nothing.
+     *
+     * @throws IllegalArgumentException when a field is not a property of {@code type}
+     */
+    public static FieldSelection of(String fields, Class<?> type) {
+        if (fields == null || fields.isBlank()) {
+            return new FieldSelection(SimpleBeanPropertyFilter.serializeAll());
+        }
+        Set<String> properties = properties(type);
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!properties.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', expected one of " + properties);
+            }
+            selected.add(name);
+        }
+        return new FieldSelection(SimpleBeanPropertyFilter.filterOutAllExcept(selected));
+    }
+
+    /**
+     * Wraps the response body so that only the selected properties are written.
+     */
+    public MappingJacksonValue apply(Object body) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider().addFilter(FILTER, filter));
+        return value;
+    }
+
+    private static Set<String> properties(Class<?> type) {
+        Set<String> properties = new TreeSet<>();
+        Arrays.stream(BeanUtils.getPropertyDescriptors(type))
+                .map(PropertyDescriptor::getName)
+                .filter(name -> !name.equals("class"))
+                .forEach(properties::add);
+        return properties;
+    }
+}
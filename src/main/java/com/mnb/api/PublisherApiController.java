@@ -0,0 +1,59 @@
+package com.mnb.api;
+
+import com.mnb.dto.PublisherSummary;
+import com.mnb.entity.Publisher;
+import com.mnb.service.PublisherService;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Read-only JSON view of the publishers for integrations.
+ */
+@RestController
+@RequestMapping("/api/v1/publishers")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class PublisherApiController {
+    final PublisherService publisherService;
+
+    @Value("${library.api.page-size:50}")
+    int defaultPageSize = 50;
+
+    @Value("${library.api.max-page-size:500}")
+    int maxPageSize = 500;
+
+    public PublisherApiController(PublisherService publisherService) {
+        this.publisherService = publisherService;
+    }
+
+    @GetMapping
+    public MappingJacksonValue list(@RequestParam(name = "after", required = false) Integer after,
+                                    @RequestParam(name = "size", required = false) Integer size,
+                                    @RequestParam(name = "fields", required = false) String fields) {
+        FieldSelection selection = FieldSelection.of(fields, PublisherSummary.class);
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        return selection.apply(publisherService.findPage(after, pageSize));
+    }
+
+    @GetMapping("/{id}")
+    public MappingJacksonValue get(@PathVariable("id") int id,
+                                   @RequestParam(name = "fields", required = false) String fields) {
+        FieldSelection selection = FieldSelection.of(fields, PublisherSummary.class);
+        Publisher publisher = publisherService.findById(id);
+        return selection.apply(new PublisherSummary(publisher.getId(), publisher.getPublisherName(),
+                publisher.getDescription()));
+    }
+
+    @GetMapping("/search")
+    public MappingJacksonValue search(@RequestParam("q") String keyword,
+                                      @RequestParam(name = "fields", required = false) String fields) {
+        FieldSelection selection = FieldSelection.of(fields, PublisherSummary.class);
+        return selection.apply(publisherService.search(keyword));
+    }
+}
@@ -0,0 +1,68 @@
+package com.mnb.cache;
+
+import com.mnb.config.CacheConfig;
+import com.mnb.entity.Book;
+import com.mnb.event.CatalogueChangedEvent;
+import com.mnb.search.BookSearchIndex;
+import com.mnb.search.Isbn;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Evicts exactly the cached search results a book change affects: the keywords whose cached
+ * result contains the book, and the keywords the saved book now matches.
+ * Every other keyword stays cached; bulk changes clear the whole cache.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookSearchCacheInvalidator {
+
+    final CacheManager cacheManager;
+
+    public BookSearchCacheInvalidator(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    // after BookSearchIndex has applied the change, see its onCatalogueChanged
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onCatalogueChanged(CatalogueChangedEvent event) {
+        if (!event.concerns(Book.class)) {
+            return;
+        }
+        Cache cache = cacheManager.getCache(CacheConfig.BOOK_SEARCH);
+        if (cache == null) {
+            return;
+        }
+        if (event.getChange() == CatalogueChangedEvent.Change.BULK
+                || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+            cache.clear();
+            return;
+        }
+        Book saved = (Book) event.getEntity();
+        nativeCache.asMap().entrySet().removeIf(entry ->
+                containsBook(entry.getValue(), event.getEntityId())
+                        || (saved != null && matches(saved, (String) entry.getKey())));
+    }
+
+    private static boolean containsBook(Object cachedResult, Integer bookId) {
+        return cachedResult instanceof List<?> books
+                && books.stream().anyMatch(b -> b instanceof Book book && Objects.equals(book.getId(), bookId));
+    }
+
+    // mirrors BookServiceImpl.findBookByName: exact ISBN lookups, trigram search for anything else and for ISBN misses
+    private static boolean matches(Book book, String keyword) {
+        Optional<String> isbn = Isbn.parse(keyword);
+        return isbn.isPresent() && isbn.get().equals(book.getIsbn()) || BookSearchIndex.matches(book, keyword);
+    }
+}
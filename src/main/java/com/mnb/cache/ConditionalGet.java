@@ -0,0 +1,57 @@
+package com.mnb.cache;
+
+import jakarta.servlet.http.HttpSession;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+/**
+ * Answers conditional GETs of the catalogue pages from {@link TableVersions}, before any
+ * repository is touched.
+ * <p>
+ * The validators are the versions and the last-modified time of the tables a page shows.
+ * The pages also carry the CSRF token of the session and role-dependent links, so the ETag
+ * includes the session and the roles, and the responses are {@code private}: a browser may
+ * keep them but must revalidate every time, a shared proxy must not store them. Pages
+ * showing flash messages are never validated, since the message is only shown once.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ConditionalGet {
+
+    final TableVersions tableVersions;
+
+    public ConditionalGet(TableVersions tableVersions) {
+        this.tableVersions = tableVersions;
+    }
+
+    /**
+     * Sets the validators of a page built from the given tables and tells whether the client's
+     * copy is still current; the handler then returns {@code null} and a 304 is sent.
+     */
+    public boolean checkNotModified(ServletWebRequest webRequest, Class<?>... tables) {
+        if (RequestContextUtils.getInputFlashMap(webRequest.getRequest()) != null) {
+            return false;
+        }
+        StringBuilder etag = new StringBuilder("W/\"").append(Long.toHexString(tableVersions.startedAt()));
+        long lastModified = tableVersions.startedAt();
+        for (Class<?> table : tables) {
+            etag.append('-').append(tableVersions.version(table));
+            lastModified = Math.max(lastModified, tableVersions.lastModified(table));
+        }
+        etag.append('-').append(Integer.toHexString(viewer(webRequest).hashCode())).append('"');
+        // Spring Security only adds its no-store headers when the response has none of its own
+        if (webRequest.getResponse() != null) {
+            webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        }
+        return webRequest.checkNotModified(etag.toString(), lastModified);
+    }
+
+    private static String viewer(ServletWebRequest webRequest) {
+        HttpSession session = webRequest.getRequest().getSession(false);
+        return (session == null ? "" : session.getId()) + '|' + PageFragmentCache.roles();
+    }
+}
@@ -0,0 +1,82 @@
+package com.mnb.cache;
+
+import com.mnb.config.CacheConfig;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Rendered HTML of the list-page tables.
+ * <p>
+ * A table fragment is rendered on its own and cached under the version of the table it shows
+ * (see {@link TableVersions}), the roles of the user (the fragments carry sec:authorize
+ * blocks) and the query, so an unchanged page neither queries the database nor runs
+ * Thymeleaf. A change bumps the version and the stale entries age out of the cache. The
+ * rest of the page, with the per-session CSRF token of the logout form, is rendered as usual.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class PageFragmentCache {
+
+    final ITemplateEngine templateEngine;
+    final TableVersions tableVersions;
+    final Cache cache;
+
+    public PageFragmentCache(ITemplateEngine templateEngine, TableVersions tableVersions, CacheManager cacheManager) {
+        this.templateEngine = templateEngine;
+        this.tableVersions = tableVersions;
+        this.cache = cacheManager.getCache(CacheConfig.PAGE_FRAGMENTS);
+    }
+
+    /**
+     * Returns the rendered {@code table} fragment of the template; the model is only built on a miss.
+     */
+    public String render(String template, Class<?> table, String query, Supplier<Map<String, Object>> model,
+                         HttpServletRequest request, HttpServletResponse response) {
+        return render(template, List.of(table), query, model, request, response);
+    }
+
+    /**
+     * Same for a fragment that shows data of several tables; a change to any of them renders it again.
+     */
+    public String render(String template, List<Class<?>> tables, String query, Supplier<Map<String, Object>> model,
+                         HttpServletRequest request, HttpServletResponse response) {
+        String versions = tables.stream().map(table -> String.valueOf(tableVersions.version(table)))
+                .collect(Collectors.joining("-"));
+        String key = template + '|' + versions + '|' + roles() + '|' + query;
+        return cache.get(key, () -> templateEngine.process(template, Set.of("table"), context(model.get(), request, response)));
+    }
+
+    private static WebContext context(Map<String, Object> model, HttpServletRequest request, HttpServletResponse response) {
+        return new WebContext(JakartaServletWebApplication.buildApplication(request.getServletContext())
+                .buildExchange(request, response), RequestContextUtils.getLocale(request), model);
+    }
+
+    static String roles() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return "";
+        }
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+}
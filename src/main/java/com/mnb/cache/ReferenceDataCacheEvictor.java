@@ -0,0 +1,50 @@
+package com.mnb.cache;
+
+import com.mnb.entity.Author;
+import com.mnb.entity.Book;
+import com.mnb.entity.Publisher;
+import com.mnb.event.CatalogueChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the Hibernate second-level cache regions of the reference data in line with the
+ * save/deleteById service methods.
+ * <p>
+ * Author.booksList is the inverse side of Book.author, so saving or deleting a book never
+ * touches the cached collection; since the previous author of a detached book is unknown,
+ * the whole collection region is dropped on every book change.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ReferenceDataCacheEvictor {
+
+    public static final String AUTHOR_BOOKS_ROLE = Author.class.getName() + ".booksList";
+
+    final EntityManagerFactory entityManagerFactory;
+
+    public ReferenceDataCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @EventListener
+    public void onCatalogueChanged(CatalogueChangedEvent event) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        if (event.concerns(Book.class)) {
+            cache.evictCollectionData(AUTHOR_BOOKS_ROLE);
+        } else if (event.getChange() == CatalogueChangedEvent.Change.BULK) {
+            cache.evictEntityData(event.getEntityType());
+            cache.evictCollectionData(AUTHOR_BOOKS_ROLE);
+        } else if (event.concerns(Author.class)) {
+            cache.evictEntityData(Author.class, event.getEntityId());
+            cache.evictCollectionData(AUTHOR_BOOKS_ROLE, event.getEntityId());
+        } else if (event.concerns(Publisher.class)) {
+            cache.evictEntityData(Publisher.class, event.getEntityId());
+        }
+    }
+}
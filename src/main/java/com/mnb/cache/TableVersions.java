@@ -0,0 +1,51 @@
+package com.mnb.cache;
+
+import com.mnb.event.CatalogueChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A change counter and a last-modified time per entity table, bumped by every
+ * {@link CatalogueChangedEvent}, so that anything derived from a table can be cached under
+ * the version it was built from.
+ * <p>
+ * The counters live in memory and start over with every run; {@link #startedAt()} tells
+ * the runs apart, and it is also the last-modified time of a table that has not changed yet.
+ */
+@Component
+public class TableVersions {
+
+    private final long startedAt = System.currentTimeMillis() / 1000 * 1000;
+    private final Map<Class<?>, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Map<Class<?>, AtomicLong> lastModified = new ConcurrentHashMap<>();
+
+    // after the commit: bumping earlier would let a concurrent request cache the old rows under the new version
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogueChanged(CatalogueChangedEvent event) {
+        versions.computeIfAbsent(event.getEntityType(), type -> new AtomicLong()).incrementAndGet();
+        // HTTP dates have whole seconds, so every change moves the time on by at least one second
+        lastModified.computeIfAbsent(event.getEntityType(), type -> new AtomicLong(startedAt))
+                .accumulateAndGet(System.currentTimeMillis(), (previous, now) -> Math.max(previous + 1000, now / 1000 * 1000));
+    }
+
+    public long version(Class<?> table) {
+        AtomicLong version = versions.get(table);
+        return version == null ? 0 : version.get();
+    }
+
+    /**
+     * Returns the time of the last change to the table in epoch milliseconds, truncated to the second.
+     */
+    public long lastModified(Class<?> table) {
+        AtomicLong time = lastModified.get(table);
+        return time == null ? startedAt : time.get();
+    }
+
+    public long startedAt() {
+        return startedAt;
+    }
+}
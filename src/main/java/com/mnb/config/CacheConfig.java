@@ -0,0 +1,35 @@
+package com.mnb.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // BookService.findBookByName results, keyed by the normalised keyword
+    public static final String BOOK_SEARCH = "bookSearch";
+
+    // rendered list-page tables, see PageFragmentCache
+    public static final String PAGE_FRAGMENTS = "pageFragments";
+
+    // bounded by the size of the HTML rather than the number of pages
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> pageFragmentsCache(
+            @Value("${library.fragments.max-chars:16000000}") long maxChars,
+            @Value("${library.fragments.expire-after-access:30m}") Duration expireAfterAccess) {
+        return cacheManager -> cacheManager.registerCustomCache(PAGE_FRAGMENTS, Caffeine.newBuilder()
+                .maximumWeight(maxChars)
+                .<Object, Object>weigher((key, html) -> ((String) html).length())
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build());
+    }
+}
@@ -0,0 +1,50 @@
+package com.mnb.config;
+
+import com.mnb.monitoring.QueryInspectionFilter;
+import com.mnb.monitoring.QueryInspectionProperties;
+import com.mnb.monitoring.QueryInspector;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes the JDBC traffic through datasource-proxy so that the {@link QueryInspector} sees every
+ * statement; {@code library.jdbc.inspection.enabled=false} leaves the pool unwrapped.
+ */
+@Configuration
+@EnableConfigurationProperties(QueryInspectionProperties.class)
+@ConditionalOnProperty(name = "library.jdbc.inspection.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryInspectionConfig {
+
+    @Bean
+    public QueryInspector queryInspector(QueryInspectionProperties properties) {
+        return new QueryInspector(properties);
+    }
+
+    @Bean
+    public QueryInspectionFilter queryInspectionFilter(QueryInspector inspector, QueryInspectionProperties properties) {
+        return new QueryInspectionFilter(inspector, properties);
+    }
+
+    // static: a post processor must not pull the rest of the configuration in early
+    @Bean
+    public static BeanPostProcessor queryInspectionDataSourceProxy(ObjectProvider<QueryInspector> inspector) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(inspector.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.mnb.config;
+
+import com.mnb.monitoring.PinnedThreadMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Extra checks for the opt-in virtual-thread mode ({@code spring.threads.virtual.enabled=true},
+ * which moves Tomcat request handling and the task executors onto virtual threads).
+ * <p>
+ * Virtual threads remove the 200-thread ceiling of Tomcat, so the JDBC pool becomes the
+ * only bound on concurrent database work. Growing the pool with the request count only
+ * moves the contention into the database, so startup fails when the pool is larger than
+ * {@code library.jdbc.max-pool-size} (by default the usual cores * 2 + 1, at least 10) or
+ * waits longer than {@code library.jdbc.max-connection-timeout} for a connection.
+ * Pinned virtual threads are reported by the {@link PinnedThreadMonitor}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    public static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    public SmartInitializingSingleton jdbcPoolSizingCheck(DataSource dataSource,
+                                                          @Value("${library.jdbc.max-pool-size:0}") int maxPoolSize,
+                                                          @Value("${library.jdbc.max-connection-timeout:10s}") Duration maxConnectionTimeout) {
+        return () -> {
+            try {
+                if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                    checkPoolSizing(dataSource.unwrap(HikariDataSource.class),
+                            maxPoolSize > 0 ? maxPoolSize : defaultMaxPoolSize(), maxConnectionTimeout);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Cannot inspect the JDBC pool", e);
+            }
+        };
+    }
+
+    @Bean
+    public PinnedThreadMonitor pinnedThreadMonitor(MeterRegistry meterRegistry,
+                                                   @Value("${library.virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+        return new PinnedThreadMonitor(meterRegistry, threshold);
+    }
+
+    static int defaultMaxPoolSize() {
+        return Math.max(10, Runtime.getRuntime().availableProcessors() * 2 + 1);
+    }
+
+    static void checkPoolSizing(HikariDataSource pool, int maxPoolSize, Duration maxConnectionTimeout) {
+        if (pool.getMaximumPoolSize() > maxPoolSize) {
+            throw new IllegalStateException("spring.datasource.hikari.maximum-pool-size=" + pool.getMaximumPoolSize()
+                    + " is above library.jdbc.max-pool-size=" + maxPoolSize
+                    + "; with virtual threads the pool bounds database concurrency, keep it small");
+        }
+        if (pool.getConnectionTimeout() > maxConnectionTimeout.toMillis()) {
+            throw new IllegalStateException("spring.datasource.hikari.connection-timeout=" + pool.getConnectionTimeout()
+                    + " ms is above library.jdbc.max-connection-timeout=" + maxConnectionTimeout.toMillis()
+                    + " ms; requests waiting for a connection should fail fast");
+        }
+        logger.info("Virtual threads enabled, JDBC pool of {} connections, {} ms connection timeout",
+                pool.getMaximumPoolSize(), pool.getConnectionTimeout());
+    }
+}
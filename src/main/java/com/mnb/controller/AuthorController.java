@@ -1,17 +1,25 @@
 package com.mnb.controller;
 
+import com.mnb.cache.ConditionalGet;
+import com.mnb.cache.PageFragmentCache;
+import com.mnb.dto.BookPage;
 import com.mnb.entity.Author;
+import com.mnb.entity.Book;
 import com.mnb.service.AuthorService;
 import com.mnb.service.BookService;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/author")
@@ -22,22 +30,65 @@ public class AuthorController {
 
     final BookService bookService;
     final AuthorService authorService;
+    final PageFragmentCache fragmentCache;
+    final ConditionalGet conditionalGet;
 
-    public AuthorController(BookService bookService, AuthorService authorService) {
+    @Value("${library.books.page-size:20}")
+    int defaultPageSize = 20;
+
+    @Value("${library.books.max-page-size:100}")
+    int maxPageSize = 100;
+
+    public AuthorController(BookService bookService, AuthorService authorService, PageFragmentCache fragmentCache,
+                            ConditionalGet conditionalGet) {
         this.bookService = bookService;
         this.authorService = authorService;
+        this.fragmentCache = fragmentCache;
+        this.conditionalGet = conditionalGet;
     }
 
 
     @GetMapping("/list")
-    public String listAuthors(Model theModel) {
-        // get author from db
-        List<Author> theAuthors = authorService.findAll();
+    public String listAuthors(Model theModel, ServletWebRequest webRequest) {
+        // unchanged since the browser's copy: answer 304 without touching the db
+        // (the book counts make the page depend on the books too)
+        if (conditionalGet.checkNotModified(webRequest, Author.class, Book.class)) {
+            return null;
+        }
+        // the table is served from the fragment cache, authors and their book counts are only read
+        // from db on a miss, in one grouped query
+        String theTable = fragmentCache.render("fragments/author-table", List.of(Author.class, Book.class), "",
+                () -> Map.of("authors", authorService.findAllWithBookCounts()),
+                webRequest.getRequest(), webRequest.getResponse());
         // add to the spring model
-        theModel.addAttribute("authors", theAuthors);
+        theModel.addAttribute("authorTable", theTable);
         return "list-authors";
     }
 
+    @GetMapping("/detail")
+    public String showDetail(@RequestParam("authorId") int theId,
+                             @RequestParam(name = "after", required = false) Integer after,
+                             @RequestParam(name = "before", required = false) Integer before,
+                             @RequestParam(name = "size", required = false) Integer size,
+                             Model theModel, ServletWebRequest webRequest) {
+        if (conditionalGet.checkNotModified(webRequest, Author.class, Book.class)) {
+            return null;
+        }
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        try {
+            Author theAuthor = authorService.findById(theId);
+            // one keyset page of the author's books by AUTHOR_ID, the booksList collection stays untouched
+            BookPage thePage = bookService.findPageByAuthor(theId, after, before, pageSize);
+            theModel.addAttribute("author", theAuthor);
+            theModel.addAttribute("books", thePage.getBooks());
+            theModel.addAttribute("page", thePage);
+            return "author-detail";
+        } catch (RuntimeException e) {
+            theModel.addAttribute("errorMessage", e.getMessage());
+            return "error";
+        }
+    }
+
     @GetMapping("/showFormForAdd")
     public String showFormForAdd(Model theModel) {
         // create model attribute to bind form data
@@ -48,7 +99,11 @@ public class AuthorController {
 
 
     @GetMapping("/showFormForUpdate")
-    public String showFormForUpdate(@RequestParam("authorId") int theID, Model theModel) {
+    public String showFormForUpdate(@RequestParam("authorId") int theID, Model theModel,
+                                    ServletWebRequest webRequest) {
+        if (conditionalGet.checkNotModified(webRequest, Author.class)) {
+            return null;
+        }
         try {
             Author theAuthor = authorService.findById(theID);
             theModel.addAttribute("authors", theAuthor);
@@ -59,9 +114,15 @@ public class AuthorController {
         }
     }
     @PostMapping("/save")
-    public String saveAuthor(@ModelAttribute("authors") Author theAuthor) {
+    public String saveAuthor(@ModelAttribute("authors") Author theAuthor, Model theModel) {
         // save the author
-        authorService.save(theAuthor);
+        try {
+            authorService.save(theAuthor);
+        } catch (OptimisticLockingFailureException e) {
+            theModel.addAttribute("errorMessage", "This author was changed or deleted by someone else since you opened it."
+                    + " Reload it to see the current values before saving again.");
+            return "author-form";
+        }
         // use a redirect to prevent duplicate submissions
         return "redirect:/author/list";
     }
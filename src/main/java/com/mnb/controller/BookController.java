@@ -1,32 +1,79 @@
 package com.mnb.controller;
 
+import com.mnb.cache.ConditionalGet;
+import com.mnb.cache.PageFragmentCache;
+import com.mnb.dto.BookPage;
+import com.mnb.dto.ImportResult;
+import com.mnb.entity.Author;
 import com.mnb.entity.Book;
+import com.mnb.entity.Publisher;
 import com.mnb.exception.NotFoundException;
+import com.mnb.service.BookImportService;
 import com.mnb.service.BookService;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/books")
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class BookController {
     final BookService bookService;
-    public BookController(BookService bookService) {
+    final BookImportService bookImportService;
+    final PageFragmentCache fragmentCache;
+    final ConditionalGet conditionalGet;
+
+    @Value("${library.books.page-size:20}")
+    int defaultPageSize = 20;
+
+    @Value("${library.books.max-page-size:100}")
+    int maxPageSize = 100;
+
+    public BookController(BookService bookService, BookImportService bookImportService,
+                          PageFragmentCache fragmentCache, ConditionalGet conditionalGet) {
         this.bookService = bookService;
+        this.bookImportService = bookImportService;
+        this.fragmentCache = fragmentCache;
+        this.conditionalGet = conditionalGet;
     }
 
     @GetMapping("/list")
-    public String listBooks(Model theModel) {
-        // get employees from db
-        List<Book> theBooks = bookService.findAll();
+    public String listBooks(Model theModel,
+                            @RequestParam(name = "after", required = false) Integer after,
+                            @RequestParam(name = "before", required = false) Integer before,
+                            @RequestParam(name = "size", required = false) Integer size,
+                            ServletWebRequest webRequest) {
+        // unchanged since the browser's copy: answer 304 without touching the db
+        if (conditionalGet.checkNotModified(webRequest, Book.class)) {
+            return null;
+        }
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        // the table is served from the fragment cache, one page of books is only read from db on a miss
+        String theTable = fragmentCache.render("fragments/book-table", Book.class,
+                "after=" + after + "&before=" + before + "&size=" + pageSize, () -> {
+                    BookPage thePage = bookService.findPage(after, before, pageSize);
+                    return Map.of("books", thePage.getBooks(), "page", thePage);
+                }, webRequest.getRequest(), webRequest.getResponse());
         // add to the spring model
-        theModel.addAttribute("books", theBooks);
+        theModel.addAttribute("bookTable", theTable);
         return "list-books";
     }
     @GetMapping("/showFormForAdd")
@@ -39,7 +86,11 @@ public class BookController {
 
 
     @GetMapping("/showFormForUpdate")
-    public String showFormForUpdate(@RequestParam("bookId") int theID, Model theModel) {
+    public String showFormForUpdate(@RequestParam("bookId") int theID, Model theModel,
+                                    ServletWebRequest webRequest) {
+        if (conditionalGet.checkNotModified(webRequest, Book.class)) {
+            return null;
+        }
         try {
             Book theBook = bookService.findById(theID);
             theModel.addAttribute("books", theBook);
@@ -50,13 +101,46 @@ public class BookController {
         }
     }
     @PostMapping("/save")
-    public String saveBook(@ModelAttribute("books") Book theBook) {
+    public String saveBook(@ModelAttribute("books") Book theBook, Model theModel) {
         // save the book
-        bookService.save(theBook);
+        boolean existing = theBook.getId() != null;
+        Author postedAuthor = theBook.getAuthor();
+        Publisher postedPublisher = theBook.getPublisher();
+        try {
+            bookService.save(theBook);
+        } catch (DataIntegrityViolationException e) {
+            // the rolled back insert left its id and version on the book, and the references it resolved may
+            // be rows that were never written: the form posts back what it was given, not those
+            if (!existing) {
+                theBook.setId(null);
+                theBook.setVersion(null);
+            }
+            theBook.setAuthor(postedAuthor);
+            theBook.setPublisher(postedPublisher);
+            theModel.addAttribute("errorMessage", isDuplicateIsbn(e)
+                    ? "A book with ISBN " + theBook.getIsbn() + " already exists"
+                    : "The book could not be saved, some of its values are not accepted by the database.");
+            return "book-form";
+        } catch (OptimisticLockingFailureException e) {
+            // the form keeps what was typed, its version stays the stale one until the book is reloaded
+            theModel.addAttribute("errorMessage", "This book was changed or deleted by someone else since you opened it."
+                    + " Reload it to see the current values before saving again.");
+            return "book-form";
+        }
         // use a redirect to prevent duplicate submissions
         return "redirect:/books/list";
     }
 
+    // only the unique key on the ISBN column means a duplicate, e.g. a value too long for its column does not
+    private static boolean isDuplicateIsbn(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toUpperCase(Locale.ROOT).contains(Book.ISBN_KEY);
+            }
+        }
+        return false;
+    }
+
     @GetMapping("/delete")
     public String delete(@RequestParam("bookId") int theId) {
         // delete the book
@@ -64,9 +148,34 @@ public class BookController {
         return "redirect:/books/list";
     }
 
+    @PostMapping("/import")
+    public String importBooks(@RequestParam("file") MultipartFile file, RedirectAttributes redirectAttributes) {
+        // .csv files are read as CSV, anything else as a JSON array or JSON lines
+        String fileName = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase();
+        try (Reader reader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            ImportResult result = fileName.endsWith(".csv")
+                    ? bookImportService.importCsv(reader)
+                    : bookImportService.importJson(reader);
+            redirectAttributes.addFlashAttribute("importMessage", String.format("Imported %d books in %d ms (%d rows/s)",
+                    result.getRows(), result.getElapsedMillis(), result.getRowsPerSecond()));
+        } catch (IOException | RuntimeException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Import failed: " + e.getMessage());
+        }
+        return "redirect:/books/list";
+    }
+
     @GetMapping("/search")
-    public String findBookByName(Model model, @Param("keyword") String keyword){
-        model.addAttribute("books", bookService.findBookByName(keyword));
+    public String findBookByName(Model model, @Param("keyword") String keyword,
+                                 @RequestParam(required = false) String author,
+                                 @RequestParam(required = false) String publisher){
+        // the author/publisher filters go through the foreign keys, a keyword alone through the trigram index
+        boolean filtered = author != null && !author.isBlank() || publisher != null && !publisher.isBlank();
+        model.addAttribute("books", filtered
+                ? bookService.search(keyword, author, publisher)
+                : bookService.findBookByName(keyword));
+        model.addAttribute("keyword", keyword);
+        model.addAttribute("author", author);
+        model.addAttribute("publisher", publisher);
         return "list-books";
     }
 }
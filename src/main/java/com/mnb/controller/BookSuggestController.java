@@ -0,0 +1,77 @@
+package com.mnb.controller;
+
+import com.mnb.dto.BookSuggestion;
+import com.mnb.search.BookPrefixIndex;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpSession;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search-as-you-type for the book list.
+ * <p>
+ * Each keystroke is a request, answered from {@link BookPrefixIndex} after a short debounce.
+ * A session has at most one pending query: a newer one supersedes it and the older request is
+ * answered right away with 204 No Content, so fast typing costs one lookup instead of one per
+ * character. Waiting requests hold no servlet thread.
+ */
+@RestController
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookSuggestController {
+    final BookPrefixIndex prefixIndex;
+    // session id -> the query waiting for its debounce
+    final Map<String, DeferredResult<ResponseEntity<List<BookSuggestion>>>> pending = new ConcurrentHashMap<>();
+    final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "book-suggest");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${library.suggest.debounce:150ms}")
+    Duration debounce = Duration.ofMillis(150);
+
+    @Value("${library.suggest.max-results:10}")
+    int maxResults = 10;
+
+    public BookSuggestController(BookPrefixIndex prefixIndex) {
+        this.prefixIndex = prefixIndex;
+    }
+
+    @GetMapping("/books/suggest")
+    public DeferredResult<ResponseEntity<List<BookSuggestion>>> suggest(@RequestParam("q") String query,
+                                                                        HttpSession session) {
+        String sessionId = session.getId();
+        DeferredResult<ResponseEntity<List<BookSuggestion>>> result = new DeferredResult<>();
+        result.onCompletion(() -> pending.remove(sessionId, result));
+        DeferredResult<ResponseEntity<List<BookSuggestion>>> superseded = pending.put(sessionId, result);
+        if (superseded != null) {
+            superseded.setResult(ResponseEntity.noContent().build());
+        }
+        scheduler.schedule(() -> {
+            // only the latest query of the session is looked up
+            if (pending.remove(sessionId, result)) {
+                result.setResult(ResponseEntity.ok(prefixIndex.suggest(query, maxResults)));
+            }
+        }, debounce.toMillis(), TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,51 @@
+package com.mnb.controller;
+
+import com.mnb.service.CatalogueExportService;
+import com.mnb.service.CatalogueExportService.Format;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Locale;
+
+@Controller
+@RequestMapping("/export")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ExportController {
+    final CatalogueExportService exportService;
+
+    public ExportController(CatalogueExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    // e.g. /export/books?format=jsonl; the body is written on an async thread while the rows are read
+    @GetMapping("/{catalogue}")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable("catalogue") String catalogue,
+                                                        @RequestParam(name = "format", defaultValue = "csv") String format) {
+        Format theFormat;
+        try {
+            theFormat = Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = switch (catalogue) {
+            case "books" -> out -> exportService.exportBooks(theFormat, out);
+            case "authors" -> out -> exportService.exportAuthors(theFormat, out);
+            case "publishers" -> out -> exportService.exportPublishers(theFormat, out);
+            default -> null;
+        };
+        if (body == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(theFormat.contentType + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + catalogue + "." + theFormat.extension + "\"")
+                .body(body);
+    }
+}
@@ -1,35 +1,50 @@
 package com.mnb.controller;
 
+import com.mnb.cache.ConditionalGet;
+import com.mnb.cache.PageFragmentCache;
 import com.mnb.entity.Publisher;
 import com.mnb.exception.NotFoundException;
 import com.mnb.service.PublisherService;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/publisher")
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class PublisherController {
     final PublisherService publisherService;
+    final PageFragmentCache fragmentCache;
+    final ConditionalGet conditionalGet;
 
-    public PublisherController(PublisherService publisherService) {
+    public PublisherController(PublisherService publisherService, PageFragmentCache fragmentCache,
+                               ConditionalGet conditionalGet) {
         this.publisherService = publisherService;
+        this.fragmentCache = fragmentCache;
+        this.conditionalGet = conditionalGet;
     }
 
 
     @GetMapping("/list")
-    public String listPublishers(Model theModel) {
+    public String listPublishers(Model theModel, ServletWebRequest webRequest) {
+        // unchanged since the browser's copy: answer 304 without touching the db
+        if (conditionalGet.checkNotModified(webRequest, Publisher.class)) {
+            return null;
+        }
 
-        // get publisher from db
-        List<Publisher> thePublishers = publisherService.findAll();
+        // the table is served from the fragment cache, publishers are only read from db on a miss
+        String theTable = fragmentCache.render("fragments/publisher-table", Publisher.class, "",
+                () -> Map.of("publishers", publisherService.findAllSummaries()),
+                webRequest.getRequest(), webRequest.getResponse());
 
         // add to the spring model
-        theModel.addAttribute("publishers", thePublishers);
+        theModel.addAttribute("publisherTable", theTable);
 
         return "list-publishers";
     }
@@ -46,7 +61,11 @@ public class PublisherController {
 
 
     @GetMapping("/showFormForUpdate")
-    public String showFormForUpdate(@RequestParam("publisherId") int theID, Model theModel) {
+    public String showFormForUpdate(@RequestParam("publisherId") int theID, Model theModel,
+                                    ServletWebRequest webRequest) {
+        if (conditionalGet.checkNotModified(webRequest, Publisher.class)) {
+            return null;
+        }
         try {
             Publisher thePublisher = publisherService.findById(theID);
             theModel.addAttribute("publishers", thePublisher);
@@ -58,10 +77,16 @@ public class PublisherController {
         }
     }
     @PostMapping("/save")
-    public String savePublisher(@ModelAttribute("publishers") Publisher thePublisher) {
+    public String savePublisher(@ModelAttribute("publishers") Publisher thePublisher, Model theModel) {
 
         // save the publisher
-        publisherService.save(thePublisher);
+        try {
+            publisherService.save(thePublisher);
+        } catch (OptimisticLockingFailureException e) {
+            theModel.addAttribute("errorMessage", "This publisher was changed or deleted by someone else since you opened it."
+                    + " Reload it to see the current values before saving again.");
+            return "publisher-form";
+        }
 
         // use a redirect to prevent duplicate submissions
         return "redirect:/publisher/list";
@@ -0,0 +1,16 @@
+package com.mnb.dto;
+
+import lombok.Value;
+
+/**
+ * An author row of the list page with the number of books and the title of the latest
+ * (highest ID) one, computed in the same grouped query.
+ */
+@Value
+public class AuthorBookCount {
+    Integer id;
+    String authorName;
+    String description;
+    long bookCount;
+    String latestTitle;
+}
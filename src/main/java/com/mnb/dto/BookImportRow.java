@@ -0,0 +1,23 @@
+package com.mnb.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * One book of a bulk import file; author and publisher are given by name.
+ * CSV files use the field names as header row.
+ */
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BookImportRow {
+    String bookName;
+    String bookSubname;
+    String serialName;
+    String author;
+    String publisher;
+    String description;
+    String isbn;
+}
@@ -0,0 +1,18 @@
+package com.mnb.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One keyset (seek-by-ID) page of books.
+ * The cursors are book IDs: pass {@code previousCursor} as {@code before}
+ * and {@code nextCursor} as {@code after}; a null cursor means there is no such page.
+ */
+@Value
+public class BookPage {
+    List<BookSummary> books;
+    Integer previousCursor;
+    Integer nextCursor;
+    int size;
+}
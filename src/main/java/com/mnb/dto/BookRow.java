@@ -0,0 +1,22 @@
+package com.mnb.dto;
+
+import lombok.Value;
+
+/**
+ * All columns of a book with the author and publisher as IDs and its version, as loaded into the
+ * in-memory catalogue snapshot.
+ */
+@Value
+public class BookRow {
+    Integer id;
+    String bookName;
+    String bookSubname;
+    String serialName;
+    String booksAuthor;
+    String booksPublisher;
+    String description;
+    String isbn;
+    Integer authorId;
+    Integer publisherId;
+    Integer version;
+}
@@ -0,0 +1,14 @@
+package com.mnb.dto;
+
+import lombok.Value;
+
+/**
+ * One search-as-you-type suggestion, served from the in-memory prefix index.
+ */
+@Value
+public class BookSuggestion {
+    Integer id;
+    String bookName;
+    String booksAuthor;
+    String isbn;
+}
@@ -0,0 +1,21 @@
+package com.mnb.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.mnb.api.FieldSelection;
+import lombok.Value;
+
+/**
+ * Read-only projection of the book columns shown on the list pages and returned by the JSON API.
+ */
+@Value
+@JsonFilter(FieldSelection.FILTER)
+public class BookSummary {
+    Integer id;
+    String bookName;
+    String bookSubname;
+    String serialName;
+    String booksAuthor;
+    String booksPublisher;
+    String description;
+    String isbn;
+}
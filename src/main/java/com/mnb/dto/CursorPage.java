@@ -0,0 +1,29 @@
+package com.mnb.dto;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One forward-only keyset page: pass {@code nextCursor} as {@code after} to get the next
+ * page, a null cursor means this is the last one.
+ */
+@Value
+public class CursorPage<T> {
+    List<T> items;
+    Integer nextCursor;
+    int size;
+
+    /**
+     * Builds the page from a query that fetched one row more than {@code size}, the extra
+     * row only tells that another page exists.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, Integer> id) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null, size);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(items, id.apply(items.get(size - 1)), size);
+    }
+}
@@ -0,0 +1,13 @@
+package com.mnb.dto;
+
+import lombok.Value;
+
+@Value
+public class ImportResult {
+    long rows;
+    long elapsedMillis;
+
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? rows * 1000 : rows * 1000 / elapsedMillis;
+    }
+}
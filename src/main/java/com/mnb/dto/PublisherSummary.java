@@ -0,0 +1,16 @@
+package com.mnb.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.mnb.api.FieldSelection;
+import lombok.Value;
+
+/**
+ * Read-only projection of the publisher columns shown on the list page and returned by the JSON API.
+ */
+@Value
+@JsonFilter(FieldSelection.FILTER)
+public class PublisherSummary {
+    Integer id;
+    String publisherName;
+    String description;
+}
@@ -0,0 +1,14 @@
+package com.mnb.dto;
+
+import lombok.Value;
+
+/**
+ * All columns of an author or publisher with its version, as loaded into the in-memory catalogue snapshot.
+ */
+@Value
+public class ReferenceRow {
+    Integer id;
+    String name;
+    String description;
+    Integer version;
+}
@@ -3,6 +3,9 @@ package com.mnb.entity;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import jakarta.persistence.*;
 import java.util.ArrayList;
@@ -10,17 +13,25 @@ import java.util.List;
 
 @Entity
 @Table(name = "AUTHOR")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Data
 public class Author {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "author_seq")
+    @SequenceGenerator(name = "author_seq", sequenceName = "AUTHOR_SEQ", allocationSize = 50)
     @Column(name = "ID")
     Integer id;
     @Column(name = "AUTHOR_NAME")
     String authorName;
     @Column(name = "DESCRIPTION")
     String description;
+    @Version
+    @Column(name = "VERSION")
+    Integer version;
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @OneToMany(fetch = FetchType.LAZY,
             mappedBy = "author",
             cascade = {CascadeType.PERSIST,CascadeType.DETACH,CascadeType.MERGE,CascadeType.REFRESH})
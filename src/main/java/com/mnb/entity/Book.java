@@ -3,16 +3,26 @@ package com.mnb.entity;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.DynamicUpdate;
 
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "BOOK")
+// author pages seek by (AUTHOR_ID, ID), see BookRepository.findSummaryPageByAuthorAfter
+// the ISBN key is named so that BookController can tell a duplicate ISBN from other violations
+@Table(name = "BOOK", indexes = @Index(name = "IDX_BOOK_AUTHOR_ID", columnList = "AUTHOR_ID, ID"),
+        uniqueConstraints = @UniqueConstraint(name = Book.ISBN_KEY, columnNames = "ISBN"))
+// managed updates (e.g. BookReferenceBackfill) write only the changed columns
+@DynamicUpdate
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Data
 public class Book {
+    public static final String ISBN_KEY = "UK_BOOK_ISBN";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled sequence instead of IDENTITY so that Hibernate can batch inserts; Author and Publisher do the same
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "BOOK_SEQ", allocationSize = 50)
     @Column(name = "ID")
     Integer id;
     @Column(name = "BOOK_NAME")
@@ -29,6 +39,11 @@ public class Book {
     String description;
     @Column(name = "ISBN")
     String isbn;
+    // optimistic lock, also on Author and Publisher: the forms post it back and the write-without-read
+    // updates compare it
+    @Version
+    @Column(name = "VERSION")
+    Integer version;
     @ManyToOne(cascade = {CascadeType.DETACH,CascadeType.MERGE,CascadeType.PERSIST,CascadeType.REFRESH})
     @JoinColumn(name = "AUTHOR_ID")
     Author author;
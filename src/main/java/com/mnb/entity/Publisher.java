@@ -3,20 +3,30 @@ package com.mnb.entity;
 import lombok.AccessLevel;
 import lombok.Data;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 import jakarta.persistence.*;
 
 @Entity
 @Table(name = "PUBLISHER")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Data
 public class Publisher {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "publisher_seq")
+    @SequenceGenerator(name = "publisher_seq", sequenceName = "PUBLISHER_SEQ", allocationSize = 50)
     @Column(name = "ID")
     Integer id;
     @Column(name = "PUBLISHER_NAME")
     String publisherName;
     @Column(name = "DESCRIPTION")
     String description;
+    @Version
+    @Column(name = "VERSION")
+    Integer version;
 }
@@ -0,0 +1,21 @@
+package com.mnb.event;
+
+import lombok.Value;
+
+/**
+ * Published before and after a write that commits in several transactions but announces them
+ * with {@link CatalogueChangedEvent}s only at the end (the import, the reference backfill).
+ * In between, the tables are ahead of what the change events have told so far.
+ */
+@Value
+public class BulkWriteEvent {
+    boolean finished;
+
+    public static BulkWriteEvent started() {
+        return new BulkWriteEvent(false);
+    }
+
+    public static BulkWriteEvent finished() {
+        return new BulkWriteEvent(true);
+    }
+}
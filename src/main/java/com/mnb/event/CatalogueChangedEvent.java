@@ -0,0 +1,35 @@
+package com.mnb.event;
+
+import lombok.Value;
+
+/**
+ * Published by the services after a book, author or publisher has been saved or deleted,
+ * so that derived structures (search index, caches, ...) can follow the database.
+ * A {@code BULK} change has no entity ID: any number of rows of that type may have changed.
+ */
+@Value
+public class CatalogueChangedEvent {
+    public enum Change { SAVED, DELETED, BULK }
+
+    Class<?> entityType;
+    Integer entityId;
+    // the saved state, null for deletions and bulk changes
+    Object entity;
+    Change change;
+
+    public static CatalogueChangedEvent saved(Class<?> entityType, Integer entityId, Object entity) {
+        return new CatalogueChangedEvent(entityType, entityId, entity, Change.SAVED);
+    }
+
+    public static CatalogueChangedEvent deleted(Class<?> entityType, Integer entityId) {
+        return new CatalogueChangedEvent(entityType, entityId, null, Change.DELETED);
+    }
+
+    public static CatalogueChangedEvent bulk(Class<?> entityType) {
+        return new CatalogueChangedEvent(entityType, null, null, Change.BULK);
+    }
+
+    public boolean concerns(Class<?> type) {
+        return entityType == type;
+    }
+}
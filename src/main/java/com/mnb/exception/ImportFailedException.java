@@ -0,0 +1,19 @@
+package com.mnb.exception;
+
+/**
+ * A bulk import that stopped part way; the chunks committed before the failure stay imported.
+ */
+public class ImportFailedException extends RuntimeException{
+    private static final long serialVersionUID = 1L;
+
+    private final long importedRows;
+
+    public ImportFailedException(long importedRows, Throwable cause) {
+        super(cause.getMessage() + " (" + importedRows + " books were imported before the failure)", cause);
+        this.importedRows = importedRows;
+    }
+
+    public long getImportedRows() {
+        return importedRows;
+    }
+}
@@ -0,0 +1,79 @@
+package com.mnb.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} event: a virtual thread that blocks inside
+ * a {@code synchronized} block (or a native frame) keeps its carrier thread, which defeats the
+ * virtual-thread mode. Every pin longer than the threshold is counted in
+ * {@code jvm.threads.virtual.pinned} and logged with the top of its stack.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class PinnedThreadMonitor implements SmartLifecycle {
+
+    public static final Logger logger = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+
+    static final String EVENT = "jdk.VirtualThreadPinned";
+    static final int LOGGED_FRAMES = 8;
+
+    final Counter pinned;
+    final Duration threshold;
+    volatile RecordingStream stream;
+
+    public PinnedThreadMonitor(MeterRegistry meterRegistry, Duration threshold) {
+        this.pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads pinned to their carrier longer than the threshold")
+                .register(meterRegistry);
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void start() {
+        RecordingStream recording = new RecordingStream();
+        recording.enable(EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(EVENT, this::onPinned);
+        recording.startAsync();
+        stream = recording;
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream recording = stream;
+        stream = null;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    public double pinnedCount() {
+        return pinned.count();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        logger.warn("Virtual thread pinned for {} ms at\n\t{}", event.getDuration().toMillis(),
+                frames.stream().limit(LOGGED_FRAMES)
+                        .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                                + ":" + frame.getLineNumber())
+                        .collect(Collectors.joining("\n\t")));
+    }
+}
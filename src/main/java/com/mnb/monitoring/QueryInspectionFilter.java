@@ -0,0 +1,72 @@
+package com.mnb.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements of every request and checks them after the response is rendered,
+ * so lazy loading triggered from a template is included.
+ * <ul>
+ *     <li>the same SQL repeated {@code repeated-statement-threshold} times is logged as a suspected N+1</li>
+ *     <li>a request over the statement budget of its endpoint is logged, or fails with a
+ *     {@link StatementBudgetExceededException} when {@code fail-on-budget} is set</li>
+ * </ul>
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class QueryInspectionFilter extends OncePerRequestFilter {
+
+    public static final Logger logger = LoggerFactory.getLogger(QueryInspectionFilter.class);
+
+    final QueryInspector inspector;
+    final QueryInspectionProperties properties;
+
+    public QueryInspectionFilter(QueryInspector inspector, QueryInspectionProperties properties) {
+        this.inspector = inspector;
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        inspector.begin();
+        RequestQueries queries;
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            queries = inspector.end();
+        }
+        check(endpoint(request), queries);
+    }
+
+    void check(String endpoint, RequestQueries queries) {
+        logger.debug("{} executed {} statements", endpoint, queries.getStatements());
+        for (Map.Entry<String, Integer> repeated : queries.repeated(properties.getRepeatedStatementThreshold()).entrySet()) {
+            logger.warn("Suspected N+1 on {}: {} executions of {}", endpoint, repeated.getValue(), repeated.getKey());
+        }
+        Integer budget = properties.getBudgets().get(endpoint);
+        if (budget != null && queries.getStatements() > budget) {
+            String message = endpoint + " executed " + queries.getStatements() + " statements, the budget is " + budget;
+            if (properties.isFailOnBudget()) {
+                throw new StatementBudgetExceededException(message);
+            }
+            logger.warn(message);
+        }
+    }
+
+    // the handler pattern, so /books/showFormForUpdate?bookId=1 and ?bookId=2 share a budget
+    static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+}
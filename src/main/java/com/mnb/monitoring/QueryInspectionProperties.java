@@ -0,0 +1,28 @@
+package com.mnb.monitoring;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@code library.jdbc.inspection.*}: settings of the {@link QueryInspector}.
+ */
+@ConfigurationProperties(prefix = "library.jdbc.inspection")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Data
+public class QueryInspectionProperties {
+    boolean enabled = true;
+    // statements taking longer are logged with their bound parameters
+    Duration slowQueryThreshold = Duration.ofMillis(500);
+    // the same SQL executed this often within one request is reported as a suspected N+1
+    int repeatedStatementThreshold = 5;
+    // maximum statements per request, keyed by "<method> <handler pattern>", e.g. "GET /books/list"
+    Map<String, Integer> budgets = new HashMap<>();
+    // throw instead of logging when a budget is exceeded (meant for tests)
+    boolean failOnBudget = false;
+}
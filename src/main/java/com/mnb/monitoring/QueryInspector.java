@@ -0,0 +1,59 @@
+package com.mnb.monitoring;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Listens to every statement sent through the proxied {@code DataSource}.
+ * <p>
+ * Statements slower than the configured threshold are logged with their bound parameters.
+ * Between {@link #begin()} and {@link #end()} (see {@link QueryInspectionFilter}) the
+ * statements of the current thread are also collected, so they can be counted per request.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class QueryInspector implements QueryExecutionListener {
+
+    public static final Logger logger = LoggerFactory.getLogger(QueryInspector.class);
+
+    final QueryInspectionProperties properties;
+    final ThreadLocal<RequestQueries> current = new ThreadLocal<>();
+    final DefaultQueryLogEntryCreator logEntryCreator = new DefaultQueryLogEntryCreator();
+
+    public QueryInspector(QueryInspectionProperties properties) {
+        this.properties = properties;
+    }
+
+    public void begin() {
+        current.set(new RequestQueries());
+    }
+
+    public RequestQueries end() {
+        RequestQueries queries = current.get();
+        current.remove();
+        return queries;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() >= properties.getSlowQueryThreshold().toMillis()) {
+            logger.warn("Slow query: {}", logEntryCreator.getLogEntry(execInfo, queryInfoList, false, false, false));
+        }
+        RequestQueries queries = current.get();
+        if (queries != null) {
+            // a JDBC batch is one round trip, it counts once
+            queries.add(queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery());
+        }
+    }
+}
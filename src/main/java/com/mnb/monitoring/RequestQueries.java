@@ -0,0 +1,35 @@
+package com.mnb.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The statements executed while one request was handled, by SQL text.
+ */
+public class RequestQueries {
+
+    private final Map<String, Integer> executions = new LinkedHashMap<>();
+    private int statements;
+
+    void add(String sql) {
+        statements++;
+        executions.merge(sql, 1, Integer::sum);
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * The SQL executed at least {@code threshold} times, with its execution count.
+     */
+    public Map<String, Integer> repeated(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        executions.forEach((sql, count) -> {
+            if (count >= threshold) {
+                repeated.put(sql, count);
+            }
+        });
+        return repeated;
+    }
+}
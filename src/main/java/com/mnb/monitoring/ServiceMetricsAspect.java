@@ -0,0 +1,75 @@
+package com.mnb.monitoring;
+
+import com.mnb.exception.NotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Times every public method of the {@code *ServiceImpl} classes.
+ * <ul>
+ *     <li>{@code library.service} timer, tagged with class, method and exception</li>
+ *     <li>{@code library.service.results} summary of the number of rows a collection-returning method gave back</li>
+ *     <li>{@code library.service.not.found} counter of the {@link NotFoundException}s thrown</li>
+ * </ul>
+ * The repositories are timed by Spring Data ({@code spring.data.repository.invocations}) and
+ * Hibernate's own statistics are bound as {@code hibernate.*}.
+ */
+@Aspect
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ServiceMetricsAspect {
+
+    static final String TIMER = "library.service";
+    static final String RESULTS = "library.service.results";
+    static final String NOT_FOUND = "library.service.not.found";
+
+    final MeterRegistry meterRegistry;
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.mnb.service.*ServiceImpl.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String type = joinPoint.getTarget().getClass().getSimpleName();
+        String method = joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            Object result = joinPoint.proceed();
+            if (result instanceof Collection<?> rows) {
+                DistributionSummary.builder(RESULTS)
+                        .description("Rows returned by a service method")
+                        .tags("class", type, "method", method)
+                        .register(meterRegistry)
+                        .record(rows.size());
+            }
+            return result;
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            if (e instanceof NotFoundException) {
+                Counter.builder(NOT_FOUND)
+                        .description("Lookups of an id that does not exist")
+                        .tags("class", type, "method", method)
+                        .register(meterRegistry)
+                        .increment();
+            }
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(TIMER)
+                    .description("Service method latency")
+                    .tags("class", type, "method", method, "exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -1,10 +1,59 @@
 package com.mnb.repository;
 
+import com.mnb.dto.AuthorBookCount;
+import com.mnb.dto.AuthorSummary;
+import com.mnb.dto.ReferenceRow;
 import com.mnb.entity.Author;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface AuthorRepository extends JpaRepository<Author,Integer> {
-    //no need to any code
+    @Query("Select new com.mnb.dto.AuthorSummary(a.id, a.authorName, a.description) from Author a order by a.id")
+    List<AuthorSummary> findAllSummaries();
+
+    // the columns of the in-memory catalogue snapshot
+    @Query("Select new com.mnb.dto.ReferenceRow(a.id, a.authorName, a.description, a.version) from Author a order by a.id")
+    List<ReferenceRow> findAllRows();
+
+    // one grouped statement; Author.booksList is only joined, never initialised
+    @Query("Select new com.mnb.dto.AuthorBookCount(a.id, a.authorName, a.description, count(b.id),"
+            + " (select l.bookName from Book l where l.id = (select max(m.id) from Book m where m.author = a)))"
+            + " from Author a left join a.booksList b group by a.id, a.authorName, a.description order by a.id")
+    List<AuthorBookCount> findAllWithBookCounts();
+
+    // keyset paging for the JSON API, see BookRepository.findSummaryPageAfter
+    @Query("Select new com.mnb.dto.AuthorSummary(a.id, a.authorName, a.description) from Author a where a.id > ?1 order by a.id")
+    List<AuthorSummary> findSummaryPageAfter(int afterId, Limit limit);
+
+    @Query("Select new com.mnb.dto.AuthorSummary(a.id, a.authorName, a.description) from Author a"
+            + " where lower(a.authorName) like lower(concat('%', ?1, '%')) order by a.authorName, a.id")
+    List<AuthorSummary> searchSummaries(String keyword, Limit limit);
+
+    // the author a typed booksAuthor name links to, see BookReferenceResolver
+    Optional<Author> findFirstByAuthorNameIgnoreCaseOrderByIdAsc(String authorName);
+
+    // write without read, see BookRepository.updateVersioned; Author.booksList is left alone
+    @Transactional
+    @Modifying
+    @Query("update Author a set a.authorName = :#{#author.authorName}, a.description = :#{#author.description},"
+            + " a.version = a.version + 1 where a.id = :#{#author.id} and a.version = :#{#author.version}")
+    int updateVersioned(@Param("author") Author author);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("Select new com.mnb.dto.AuthorSummary(a.id, a.authorName, a.description) from Author a order by a.id")
+    Stream<AuthorSummary> streamAllSummaries();
 }
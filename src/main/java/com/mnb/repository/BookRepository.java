@@ -1,17 +1,140 @@
 package com.mnb.repository;
 
+import com.mnb.dto.BookRow;
+import com.mnb.dto.BookSummary;
+import com.mnb.entity.Author;
 import com.mnb.entity.Book;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
 public interface BookRepository extends JpaRepository<Book,Integer> {
+    // the queries below load author and publisher in the same statement through an entity graph,
+    // otherwise the eager @ManyToOne associations cost one extra select per distinct author/publisher
+    @Override
+    @EntityGraph(attributePaths = {"author", "publisher"})
+    List<Book> findAll();
+
+    @EntityGraph(attributePaths = {"author", "publisher"})
     @Query("Select b from Book b where b.bookName LIKE %?1%"
             + "OR b.isbn LIKE %?1%"
             + "OR b.serialName LIKE %?1%"
             +"OR b.booksAuthor LIKE %?1%")
     List<Book> findByName(String keyword);
+
+    // equality lookup on the unique ISBN index, expects a normalised ISBN
+    @EntityGraph(attributePaths = {"author", "publisher"})
+    Optional<Book> findByIsbn(String isbn);
+
+    @EntityGraph(attributePaths = {"author", "publisher"})
+    List<Book> findByIdIn(Collection<Integer> ids);
+
+    // keyset paging: seek on the primary key instead of OFFSET so every page costs the same
+    @EntityGraph(attributePaths = {"author", "publisher"})
+    @Query("Select b from Book b where b.id > ?1 order by b.id asc")
+    List<Book> findPageAfter(int afterId, Limit limit);
+
+    // the list page only needs the text columns: constructor projections skip entity hydration entirely
+    @Query("Select new com.mnb.dto.BookSummary(b.id, b.bookName, b.bookSubname, b.serialName, b.booksAuthor,"
+            + " b.booksPublisher, b.description, b.isbn) from Book b where b.id > ?1 order by b.id asc")
+    List<BookSummary> findSummaryPageAfter(int afterId, Limit limit);
+
+    @Query("Select new com.mnb.dto.BookSummary(b.id, b.bookName, b.bookSubname, b.serialName, b.booksAuthor,"
+            + " b.booksPublisher, b.description, b.isbn) from Book b where b.id < ?1 order by b.id desc")
+    List<BookSummary> findSummaryPageBefore(int beforeId, Limit limit);
+
+    // an author's books, seeking on the (AUTHOR_ID, ID) index; b.author.id is the foreign key column, no join
+    @Query("Select new com.mnb.dto.BookSummary(b.id, b.bookName, b.bookSubname, b.serialName, b.booksAuthor,"
+            + " b.booksPublisher, b.description, b.isbn) from Book b where b.author.id = ?1 and b.id > ?2 order by b.id asc")
+    List<BookSummary> findSummaryPageByAuthorAfter(int authorId, int afterId, Limit limit);
+
+    @Query("Select new com.mnb.dto.BookSummary(b.id, b.bookName, b.bookSubname, b.serialName, b.booksAuthor,"
+            + " b.booksPublisher, b.description, b.isbn) from Book b where b.author.id = ?1 and b.id < ?2 order by b.id desc")
+    List<BookSummary> findSummaryPageByAuthorBefore(int authorId, int beforeId, Limit limit);
+
+    // search filtered by author and/or publisher: the foreign key indexes (IDX_BOOK_AUTHOR_ID and the index H2
+    // keeps for the PUBLISHER_ID constraint) narrow the rows, the keyword pattern
+    // (lower case with wildcards, or empty for none) is only matched within them
+    @EntityGraph(attributePaths = {"author", "publisher"})
+    @Query("Select b from Book b where b.author.id = ?1 and (?2 = '' or lower(b.bookName) like ?2"
+            + " or lower(b.serialName) like ?2 or lower(b.isbn) like ?2) order by b.id asc")
+    List<Book> searchByAuthor(int authorId, String pattern, Limit limit);
+
+    @EntityGraph(attributePaths = {"author", "publisher"})
+    @Query("Select b from Book b where b.publisher.id = ?1 and (?2 = '' or lower(b.bookName) like ?2"
+            + " or lower(b.serialName) like ?2 or lower(b.isbn) like ?2) order by b.id asc")
+    List<Book> searchByPublisher(int publisherId, String pattern, Limit limit);
+
+    @EntityGraph(attributePaths = {"author", "publisher"})
+    @Query("Select b from Book b where b.author.id = ?1 and b.publisher.id = ?2 and (?3 = '' or lower(b.bookName) like ?3"
+            + " or lower(b.serialName) like ?3 or lower(b.isbn) like ?3) order by b.id asc")
+    List<Book> searchByAuthorAndPublisher(int authorId, int publisherId, String pattern, Limit limit);
+
+    // books whose typed author/publisher name is not linked to a row yet, see BookReferenceBackfill
+    @EntityGraph(attributePaths = {"author", "publisher"})
+    @Query("Select b from Book b where b.id > ?1 and ((b.author is null and b.booksAuthor is not null)"
+            + " or (b.publisher is null and b.booksPublisher is not null)) order by b.id asc")
+    List<Book> findUnlinkedPageAfter(int afterId, Limit limit);
+
+    @Query("Select b from Book b where b.id > ?1 and length(b.isbn) = 10 order by b.id asc")
+    List<Book> findIsbn10PageAfter(int afterId, Limit limit);
+
+    // re-attributes books in one statement, the author text column follows the association; as for any bulk
+    // update Hibernate drops the cached Book and Author.booksList entries, the persistence context is cleared.
+    // The version is bumped so that forms opened before the re-attribution are rejected
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.author = ?1, b.booksAuthor = ?2, b.version = b.version + 1 where b.id in ?3")
+    int assignAuthor(Author author, String authorName, Collection<Integer> bookIds);
+
+    // the typed name of the books linked to a renamed author or publisher follows the rename, in the rename's
+    // transaction: a book form posting the old name back would otherwise be linked to another row by
+    // BookReferenceResolver. Like any book write it bumps the version; the persistence context is cleared
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.booksAuthor = ?2, b.version = b.version + 1 where b.author.id = ?1"
+            + " and (b.booksAuthor is null or b.booksAuthor <> ?2)")
+    int renameAuthor(Integer authorId, String authorName);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.booksPublisher = ?2, b.version = b.version + 1 where b.publisher.id = ?1"
+            + " and (b.booksPublisher is null or b.booksPublisher <> ?2)")
+    int renamePublisher(Integer publisherId, String publisherName);
+
+    // write without read: one UPDATE of the form's columns, guarded by the version the form was loaded with, instead
+    // of the select a merge issues first; 0 means the book was changed or deleted in the meantime, and a null
+    // version matches nothing. Needs the caller's transaction.
+    @Modifying(flushAutomatically = true)
+    @Query("update Book b set b.bookName = :#{#book.bookName}, b.bookSubname = :#{#book.bookSubname},"
+            + " b.serialName = :#{#book.serialName}, b.booksAuthor = :#{#book.booksAuthor},"
+            + " b.booksPublisher = :#{#book.booksPublisher}, b.description = :#{#book.description},"
+            + " b.isbn = :#{#book.isbn}, b.author = :#{#book.author}, b.publisher = :#{#book.publisher},"
+            + " b.version = b.version + 1 where b.id = :#{#book.id} and b.version = :#{#book.version}")
+    int updateVersioned(@Param("book") Book book);
+
+    // every column with the associations as IDs, for the in-memory catalogue snapshot
+    @Query("Select new com.mnb.dto.BookRow(b.id, b.bookName, b.bookSubname, b.serialName, b.booksAuthor,"
+            + " b.booksPublisher, b.description, b.isbn, a.id, p.id, b.version) from Book b left join b.author a"
+            + " left join b.publisher p where b.id > ?1 order by b.id asc")
+    List<BookRow> findRowPageAfter(int afterId, Limit limit);
+
+    // forward-only cursor for the export: the driver fetches 1000 rows at a time and Hibernate keeps no snapshots
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @EntityGraph(attributePaths = {"author", "publisher"})
+    @Query("Select b from Book b order by b.id")
+    Stream<Book> streamAll();
 }
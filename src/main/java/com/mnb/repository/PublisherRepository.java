@@ -1,10 +1,52 @@
 package com.mnb.repository;
 
+import com.mnb.dto.PublisherSummary;
+import com.mnb.dto.ReferenceRow;
 import com.mnb.entity.Publisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface PublisherRepository extends JpaRepository<Publisher,Integer> {
-    //no need to any code
+    @Query("Select new com.mnb.dto.PublisherSummary(p.id, p.publisherName, p.description) from Publisher p order by p.id")
+    List<PublisherSummary> findAllSummaries();
+
+    // the columns of the in-memory catalogue snapshot
+    @Query("Select new com.mnb.dto.ReferenceRow(p.id, p.publisherName, p.description, p.version) from Publisher p order by p.id")
+    List<ReferenceRow> findAllRows();
+
+    // keyset paging for the JSON API, see BookRepository.findSummaryPageAfter
+    @Query("Select new com.mnb.dto.PublisherSummary(p.id, p.publisherName, p.description) from Publisher p where p.id > ?1 order by p.id")
+    List<PublisherSummary> findSummaryPageAfter(int afterId, Limit limit);
+
+    @Query("Select new com.mnb.dto.PublisherSummary(p.id, p.publisherName, p.description) from Publisher p"
+            + " where lower(p.publisherName) like lower(concat('%', ?1, '%')) order by p.publisherName, p.id")
+    List<PublisherSummary> searchSummaries(String keyword, Limit limit);
+
+    // the publisher a typed booksPublisher name links to, see BookReferenceResolver
+    Optional<Publisher> findFirstByPublisherNameIgnoreCaseOrderByIdAsc(String publisherName);
+
+    // write without read, see BookRepository.updateVersioned
+    @Transactional
+    @Modifying
+    @Query("update Publisher p set p.publisherName = :#{#publisher.publisherName}, p.description = :#{#publisher.description},"
+            + " p.version = p.version + 1 where p.id = :#{#publisher.id} and p.version = :#{#publisher.version}")
+    int updateVersioned(@Param("publisher") Publisher publisher);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("Select new com.mnb.dto.PublisherSummary(p.id, p.publisherName, p.description) from Publisher p order by p.id")
+    Stream<PublisherSummary> streamAllSummaries();
 }
@@ -0,0 +1,233 @@
+package com.mnb.search;
+
+import com.mnb.dto.BookSuggestion;
+import com.mnb.dto.BookSummary;
+import com.mnb.entity.Book;
+import com.mnb.event.CatalogueChangedEvent;
+import com.mnb.repository.BookRepository;
+import com.mnb.snapshot.CatalogueSnapshot;
+import com.mnb.snapshot.CatalogueSnapshotStore;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Sorted in-memory prefix index behind the search-as-you-type suggestions.
+ * <p>
+ * Each word start of the book name and of the author text, and the ISBN, is stored as a key
+ * {@code <text from there on>\0<book id>} in a single sorted set. The keys starting with the
+ * typed prefix form one contiguous range of that set, so a lookup is a seek plus a scan of at
+ * most a few entries, and shorter (closer) matches come first. The suggested columns are kept
+ * alongside, so suggesting never touches the database. Like {@link BookSearchIndex} the index
+ * is built once the application is ready (from the {@link CatalogueSnapshot} when there is one)
+ * and kept up to date from {@link CatalogueChangedEvent}s. A rebuild fills a new set and map and
+ * swaps them in together, so suggestions asked for meanwhile come from the complete previous index.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookPrefixIndex {
+
+    public static final Logger logger = LoggerFactory.getLogger(BookPrefixIndex.class);
+
+    static final char SEPARATOR = '\0';
+    // keys are cut to this length, longer prefixes are matched on their first characters
+    static final int MAX_KEY_LENGTH = 64;
+    static final int REBUILD_BATCH = 1000;
+
+    final BookRepository bookRepository;
+    final CatalogueSnapshotStore snapshotStore;
+    // writers are serialised, readers never block and read the current entries once per lookup
+    final ReentrantLock writeLock = new ReentrantLock();
+    volatile Entries entries = new Entries();
+
+    public BookPrefixIndex(BookRepository bookRepository, CatalogueSnapshotStore snapshotStore) {
+        this.bookRepository = bookRepository;
+        this.snapshotStore = snapshotStore;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Optional<CatalogueSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            rebuild(snapshot.get());
+        } else {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        rebuild(suggestions -> {
+            int after = 0;
+            List<BookSummary> batch;
+            do {
+                // the projection is enough, no need to load authors and publishers
+                batch = bookRepository.findSummaryPageAfter(after, Limit.of(REBUILD_BATCH));
+                for (BookSummary book : batch) {
+                    suggestions.accept(new BookSuggestion(book.getId(), book.getBookName(), book.getBooksAuthor(),
+                            book.getIsbn()));
+                    after = book.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH);
+        });
+    }
+
+    public void rebuild(CatalogueSnapshot snapshot) {
+        rebuild(suggestions -> snapshot.forEachBook(book -> suggestions.accept(
+                new BookSuggestion(book.getId(), book.getBookName(), book.getBooksAuthor(), book.getIsbn()))));
+    }
+
+    private void rebuild(Consumer<Consumer<BookSuggestion>> source) {
+        long start = System.nanoTime();
+        Entries rebuilt = new Entries();
+        writeLock.lock();
+        try {
+            source.accept(rebuilt::add);
+            entries = rebuilt;
+        } finally {
+            writeLock.unlock();
+        }
+        logger.info("Indexed {} prefixes of {} books in {} ms", rebuilt.keys.size(), rebuilt.books.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // like BookSearchIndex, before BookSearchCacheInvalidator: short search keywords are answered from here
+    @EventListener
+    @Order(0)
+    public void onCatalogueChanged(CatalogueChangedEvent event) {
+        if (!event.concerns(Book.class)) {
+            return;
+        }
+        if (event.getChange() == CatalogueChangedEvent.Change.BULK) {
+            rebuild();
+        } else if (event.getChange() == CatalogueChangedEvent.Change.DELETED) {
+            remove(event.getEntityId());
+        } else {
+            Book book = (Book) event.getEntity();
+            if (book != null && book.getId() != null) {
+                index(new BookSuggestion(book.getId(), book.getBookName(), book.getBooksAuthor(), book.getIsbn()));
+            }
+        }
+    }
+
+    public void index(BookSuggestion book) {
+        writeLock.lock();
+        try {
+            entries.remove(book.getId());
+            entries.add(book);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(Integer bookId) {
+        writeLock.lock();
+        try {
+            entries.remove(bookId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        return entries.books.size();
+    }
+
+    /**
+     * Returns up to {@code limit} books with a name word, author word or ISBN starting with the prefix.
+     */
+    public List<BookSuggestion> suggest(String prefix, int limit) {
+        String term = normalize(prefix);
+        if (term == null) {
+            return List.of();
+        }
+        Entries current = entries;
+        Set<Integer> ids = new LinkedHashSet<>();
+        current.scan(term, ids, limit);
+        // "978-0-575" finds the ISBN 9780575...
+        String digits = term.replaceAll("[\\s-]", "");
+        if (!digits.equals(term) && !digits.isEmpty()) {
+            current.scan(digits, ids, limit);
+        }
+        return ids.stream().map(current.books::get).filter(Objects::nonNull).toList();
+    }
+
+    static Set<String> keys(BookSuggestion book) {
+        Set<String> keys = new LinkedHashSet<>();
+        String suffix = String.valueOf(SEPARATOR) + book.getId();
+        for (String field : new String[]{normalize(book.getBookName()), normalize(book.getBooksAuthor())}) {
+            if (field == null) {
+                continue;
+            }
+            for (int i = 0; i < field.length(); i++) {
+                if (i == 0 || field.charAt(i - 1) == ' ') {
+                    keys.add(field.substring(i, Math.min(field.length(), i + MAX_KEY_LENGTH)) + suffix);
+                }
+            }
+        }
+        String isbn = normalize(book.getIsbn());
+        if (isbn != null) {
+            keys.add(isbn.replaceAll("[\\s-]", "") + suffix);
+        }
+        return keys;
+    }
+
+    // lower-case with single spaces, cut to the key length
+    static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String normalized = value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        return normalized.length() > MAX_KEY_LENGTH ? normalized.substring(0, MAX_KEY_LENGTH) : normalized;
+    }
+
+    /**
+     * The sorted keys and the suggested columns of one generation of the index.
+     */
+    static final class Entries {
+        final NavigableSet<String> keys = new ConcurrentSkipListSet<>();
+        final Map<Integer, BookSuggestion> books = new ConcurrentHashMap<>();
+
+        void add(BookSuggestion book) {
+            books.put(book.getId(), book);
+            keys.addAll(keys(book));
+        }
+
+        void remove(Integer bookId) {
+            BookSuggestion old = books.remove(bookId);
+            if (old != null) {
+                keys.removeAll(keys(old));
+            }
+        }
+
+        void scan(String term, Set<Integer> ids, int limit) {
+            for (String key : keys.subSet(term, true, term + Character.MAX_VALUE, false)) {
+                if (ids.size() >= limit) {
+                    return;
+                }
+                ids.add(Integer.valueOf(key.substring(key.lastIndexOf(SEPARATOR) + 1)));
+            }
+        }
+    }
+}
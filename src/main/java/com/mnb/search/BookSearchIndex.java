@@ -0,0 +1,299 @@
+package com.mnb.search;
+
+import com.mnb.dto.BookSuggestion;
+import com.mnb.entity.Book;
+import com.mnb.event.CatalogueChangedEvent;
+import com.mnb.repository.BookRepository;
+import com.mnb.snapshot.CatalogueSnapshot;
+import com.mnb.snapshot.CatalogueSnapshotStore;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory trigram index over the searchable book columns
+ * (name, ISBN, serial name and the author text).
+ * <p>
+ * Every column value is lower-cased and split into overlapping three-character grams; a
+ * posting set per gram holds the IDs of the books containing it. A query intersects the
+ * posting sets of its own grams, verifies the few remaining candidates with a substring
+ * check and ranks them, so {@code LIKE %keyword%} semantics are kept without a table scan.
+ * The index is built once the application is ready, from the {@link CatalogueSnapshot} when
+ * there is one (so a snapshot mapped back from its file needs no database scan), and then kept
+ * up to date from {@link CatalogueChangedEvent}s. A rebuild fills new maps and swaps them in
+ * as a whole, so searches running meanwhile keep seeing the complete previous index.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookSearchIndex {
+
+    public static final Logger logger = LoggerFactory.getLogger(BookSearchIndex.class);
+
+    static final int GRAM = 3;
+    static final int REBUILD_BATCH = 1000;
+
+    final BookRepository bookRepository;
+    final CatalogueSnapshotStore snapshotStore;
+    final BookPrefixIndex prefixIndex;
+    // writers are serialised, readers never block and read the current maps once per search
+    final ReentrantLock writeLock = new ReentrantLock();
+    volatile Maps maps = new Maps();
+    volatile boolean ready;
+
+    @Value("${library.search.max-results:200}")
+    int maxResults = 200;
+
+    public BookSearchIndex(BookRepository bookRepository, CatalogueSnapshotStore snapshotStore,
+                           BookPrefixIndex prefixIndex) {
+        this.bookRepository = bookRepository;
+        this.snapshotStore = snapshotStore;
+        this.prefixIndex = prefixIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Optional<CatalogueSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            rebuild(snapshot.get());
+        } else {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        rebuild(books -> {
+            int after = 0;
+            List<Book> batch;
+            do {
+                batch = bookRepository.findPageAfter(after, Limit.of(REBUILD_BATCH));
+                for (Book book : batch) {
+                    books.accept(book);
+                    after = book.getId();
+                }
+            } while (batch.size() == REBUILD_BATCH);
+        });
+    }
+
+    public void rebuild(CatalogueSnapshot snapshot) {
+        rebuild(snapshot::forEachBook);
+    }
+
+    private void rebuild(Consumer<Consumer<Book>> source) {
+        long start = System.nanoTime();
+        Maps rebuilt = new Maps();
+        writeLock.lock();
+        try {
+            source.accept(rebuilt::add);
+            maps = rebuilt;
+            ready = true;
+        } finally {
+            writeLock.unlock();
+        }
+        logger.info("Indexed {} books in {} ms", rebuilt.documents.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // runs before BookSearchCacheInvalidator, so results cached during a rebuild are evicted after the swap
+    @EventListener
+    @Order(0)
+    public void onCatalogueChanged(CatalogueChangedEvent event) {
+        if (!event.concerns(Book.class)) {
+            return;
+        }
+        if (event.getChange() == CatalogueChangedEvent.Change.BULK) {
+            rebuild();
+        } else if (event.getChange() == CatalogueChangedEvent.Change.DELETED) {
+            remove(event.getEntityId());
+        } else {
+            index((Book) event.getEntity());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            maps.remove(book.getId());
+            maps.add(book);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void remove(Integer bookId) {
+        writeLock.lock();
+        try {
+            maps.remove(bookId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        return maps.documents.size();
+    }
+
+    /**
+     * Tells whether the book would be part of the results for the keyword.
+     */
+    public static boolean matches(Book book, String keyword) {
+        String term = normalize(keyword);
+        return term != null && document(book).score(term) > 0;
+    }
+
+    /**
+     * Returns the IDs of the books matching the keyword, best match first. A keyword shorter than a
+     * gram has no posting set, it matches the word starts of the {@link BookPrefixIndex} instead.
+     */
+    public List<Integer> search(String keyword) {
+        String term = normalize(keyword);
+        if (term == null) {
+            return List.of();
+        }
+        Maps current = maps;
+        Collection<Integer> candidates = term.length() < GRAM
+                ? prefixIndex.suggest(term, maxResults).stream().map(BookSuggestion::getId).toList()
+                : current.candidates(term);
+        List<Hit> hits = new ArrayList<>();
+        for (Integer id : candidates) {
+            Document document = current.documents.get(id);
+            int score = document == null ? 0 : document.score(term);
+            if (score > 0) {
+                hits.add(new Hit(id, score));
+            }
+        }
+        hits.sort(Comparator.comparingInt(Hit::score).reversed().thenComparingInt(Hit::id));
+        return hits.stream().limit(maxResults).map(Hit::id).toList();
+    }
+
+
+    private static Document document(Book book) {
+        return new Document(normalize(book.getBookName()), normalize(book.getIsbn()),
+                normalize(book.getSerialName()), normalize(book.getBooksAuthor()));
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        if (value != null) {
+            for (int i = 0; i + GRAM <= value.length(); i++) {
+                grams.add(value.substring(i, i + GRAM));
+            }
+        }
+        return grams;
+    }
+
+    record Hit(int id, int score) {
+    }
+
+    /**
+     * The documents and the posting sets of one generation of the index.
+     */
+    static final class Maps {
+        final Map<Integer, Document> documents = new ConcurrentHashMap<>();
+        final Map<String, Set<Integer>> postings = new ConcurrentHashMap<>();
+
+        void add(Book book) {
+            Document document = document(book);
+            documents.put(book.getId(), document);
+            for (String gram : document.allGrams()) {
+                postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(book.getId());
+            }
+        }
+
+        void remove(Integer bookId) {
+            Document old = documents.remove(bookId);
+            if (old == null) {
+                return;
+            }
+            for (String gram : old.allGrams()) {
+                Set<Integer> posting = postings.get(gram);
+                if (posting != null) {
+                    posting.remove(bookId);
+                    if (posting.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+
+        Collection<Integer> candidates(String term) {
+            List<Set<Integer>> lists = new ArrayList<>();
+            for (String gram : grams(term)) {
+                Set<Integer> posting = postings.get(gram);
+                if (posting == null) {
+                    return List.of();
+                }
+                lists.add(posting);
+            }
+            // intersect starting from the rarest gram
+            lists.sort(Comparator.comparingInt(Set::size));
+            Set<Integer> result = new HashSet<>(lists.get(0));
+            for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+                result.retainAll(lists.get(i));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The normalised searchable columns of one book.
+     */
+    record Document(String name, String isbn, String serialName, String author) {
+
+        Set<String> allGrams() {
+            Set<String> grams = grams(name);
+            grams.addAll(grams(isbn));
+            grams.addAll(grams(serialName));
+            grams.addAll(grams(author));
+            return grams;
+        }
+
+        // exact matches beat prefix matches beat substring matches; the title and ISBN weigh most
+        int score(String term) {
+            return score(name, term, 4) + score(isbn, term, 4) + score(serialName, term, 2) + score(author, term, 2);
+        }
+
+        private static int score(String field, String term, int weight) {
+            if (field == null || !field.contains(term)) {
+                return 0;
+            }
+            if (field.equals(term)) {
+                return weight * 3;
+            }
+            return field.startsWith(term) ? weight * 2 : weight;
+        }
+    }
+}
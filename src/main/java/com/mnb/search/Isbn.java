@@ -0,0 +1,78 @@
+package com.mnb.search;
+
+import java.util.Optional;
+
+/**
+ * ISBN-10/ISBN-13 normalisation and validation.
+ * The normalised form is the ISBN-13 without separators, e.g. {@code 9780134685991}: an ISBN-10 is
+ * converted (978 prefix, new check digit), so a book is stored and found under one number whichever
+ * form was typed or scanned.
+ */
+public final class Isbn {
+
+    private Isbn() {
+    }
+
+    /**
+     * Returns the keyword as a normalised ISBN-13 when it is a valid ISBN-10 or ISBN-13.
+     */
+    public static Optional<String> parse(String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        String candidate = value.replaceAll("[\\s-]", "").toUpperCase();
+        if (candidate.length() == 10 && isValidIsbn10(candidate)) {
+            return Optional.of(toIsbn13(candidate));
+        }
+        return candidate.length() == 13 && isValidIsbn13(candidate) ? Optional.of(candidate) : Optional.empty();
+    }
+
+    /**
+     * Normalises a valid ISBN; anything else is only trimmed, and blanks become null.
+     */
+    public static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return parse(value).orElse(value.trim());
+    }
+
+    // the ISBN-10 check character is dropped, the EAN check digit is computed over 978 and the nine digits
+    private static String toIsbn13(String isbn10) {
+        String body = "978" + isbn10.substring(0, 9);
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (body.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return body + (10 - sum % 10) % 10;
+    }
+
+    private static boolean isValidIsbn10(String isbn) {
+        int sum = 0;
+        for (int i = 0; i < 10; i++) {
+            char c = isbn.charAt(i);
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (c == 'X' && i == 9) {
+                digit = 10;
+            } else {
+                return false;
+            }
+            sum += digit * (10 - i);
+        }
+        return sum % 11 == 0;
+    }
+
+    private static boolean isValidIsbn13(String isbn) {
+        int sum = 0;
+        for (int i = 0; i < 13; i++) {
+            char c = isbn.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            sum += (c - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return sum % 10 == 0;
+    }
+}
@@ -1,21 +1,52 @@
 package com.mnb.service;
 
+import com.mnb.dto.AuthorBookCount;
+import com.mnb.dto.AuthorSummary;
+import com.mnb.dto.CursorPage;
 import com.mnb.entity.Author;
 import com.mnb.entity.Book;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface AuthorService {
     public List<Author> findAll();
 
+    public List<AuthorSummary> findAllSummaries();
+
+    /**
+     * Returns every author with its book count and latest title, without loading any books list.
+     */
+    List<AuthorBookCount> findAllWithBookCounts();
+
+    /**
+     * Returns one keyset page of authors ordered by ID, starting right after {@code after}.
+     */
+    CursorPage<AuthorSummary> findPage(Integer after, int size);
+
+    // case-insensitive substring match on the name
+    List<AuthorSummary> search(String keyword);
+
     public Author findById(int theId);
 
+    /**
+     * Inserts a new author or writes an existing one with a single versioned UPDATE, see {@link BookService#save}.
+     */
     public void save(Author theAuthor);
 
     public void deleteById(int theId);
 
     public void addBook(Author author, Book book);
 
+    /**
+     * Makes the author the author of all the given books, in one transaction with one author lookup
+     * and one UPDATE per {@code library.authors.assign-batch} books. The move is announced
+     * after the commit with one bulk event, as the import does.
+     *
+     * @return the number of books updated; IDs of books that do not exist are skipped
+     */
+    int assignBooks(int authorId, Collection<Integer> bookIds);
+
     Optional<Author> getAuthor(Integer authorId);
 }
@@ -1,13 +1,30 @@
 package com.mnb.service;
 
+import com.mnb.dto.CursorPage;
+import com.mnb.dto.AuthorBookCount;
+import com.mnb.dto.AuthorSummary;
+import com.mnb.event.CatalogueChangedEvent;
+import com.mnb.exception.NotFoundException;
 import com.mnb.repository.AuthorRepository;
+import com.mnb.repository.BookRepository;
+import com.mnb.snapshot.CatalogueSnapshot;
+import com.mnb.snapshot.CatalogueSnapshotStore;
 import com.mnb.entity.Author;
 import com.mnb.entity.Book;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,18 +32,71 @@ import java.util.Optional;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class AuthorServiceImpl implements AuthorService{
     final AuthorRepository authorRepository;
-    public AuthorServiceImpl(AuthorRepository authorRepository) {
+    final BookRepository bookRepository;
+    final ApplicationEventPublisher eventPublisher;
+    final CatalogueSnapshotStore snapshotStore;
+    final TransactionTemplate transactionTemplate;
+
+    @Value("${library.search.max-results:200}")
+    int maxResults = 200;
+
+    @Value("${library.authors.assign-batch:1000}")
+    int assignBatch = 1000;
+
+    public AuthorServiceImpl(AuthorRepository authorRepository, BookRepository bookRepository,
+                             ApplicationEventPublisher eventPublisher, CatalogueSnapshotStore snapshotStore,
+                             PlatformTransactionManager transactionManager) {
         this.authorRepository = authorRepository;
+        this.bookRepository = bookRepository;
+        this.eventPublisher = eventPublisher;
+        this.snapshotStore = snapshotStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
+    // the reads below are answered from the in-memory snapshot when it is enabled
     @Override
     public List<Author> findAll() {
-        return authorRepository.findAll();
+        return snapshotStore.current().map(CatalogueSnapshot::authors).orElseGet(authorRepository::findAll);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AuthorSummary> findAllSummaries() {
+        return snapshotStore.current().map(CatalogueSnapshot::authorSummaries)
+                .orElseGet(authorRepository::findAllSummaries);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AuthorBookCount> findAllWithBookCounts() {
+        return snapshotStore.current().map(CatalogueSnapshot::authorBookCounts)
+                .orElseGet(authorRepository::findAllWithBookCounts);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<AuthorSummary> findPage(Integer after, int size) {
+        // one extra row tells whether there is a next page
+        return CursorPage.of(authorRepository.findSummaryPageAfter(after == null ? 0 : after, Limit.of(size + 1)),
+                size, AuthorSummary::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AuthorSummary> search(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return List.of();
+        }
+        Optional<CatalogueSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().searchAuthors(keyword, maxResults);
+        }
+        return authorRepository.searchSummaries(keyword.trim(), Limit.of(maxResults));
     }
 
     @Override
     public Author findById(int theId) {
-        Optional<Author> result = authorRepository.findById(theId);
+        Optional<Author> result = getAuthor(theId);
         Author theAuthor = null;
         if (result.isPresent()) {
             theAuthor = result.get();
@@ -40,12 +110,34 @@ public class AuthorServiceImpl implements AuthorService{
 
     @Override
     public void save(Author theAuthor) {
-        authorRepository.save(theAuthor);
+        if (theAuthor.getId() == null) {
+            Author saved = authorRepository.save(theAuthor);
+            eventPublisher.publishEvent(CatalogueChangedEvent.saved(Author.class, theAuthor.getId(), saved));
+            return;
+        }
+        int renamedBooks = transactionTemplate.execute(status -> update(theAuthor));
+        theAuthor.setVersion(theAuthor.getVersion() + 1);
+        eventPublisher.publishEvent(CatalogueChangedEvent.saved(Author.class, theAuthor.getId(), theAuthor));
+        if (renamedBooks > 0) {
+            // the indexes and the snapshot hold the author text of the books as well
+            eventPublisher.publishEvent(CatalogueChangedEvent.bulk(Book.class));
+        }
+    }
+
+    // one versioned UPDATE instead of merging the detached author, which selects it first, plus the author
+    // text of its books; returns the number of books whose text changed
+    private int update(Author theAuthor) {
+        // without the version the form was loaded with there is nothing to guard the write, it has to be reloaded
+        if (theAuthor.getVersion() == null || authorRepository.updateVersioned(theAuthor) == 0) {
+            throw new ObjectOptimisticLockingFailureException(Author.class, theAuthor.getId());
+        }
+        return bookRepository.renameAuthor(theAuthor.getId(), theAuthor.getAuthorName());
     }
 
     @Override
     public void deleteById(int theId) {
         authorRepository.deleteById(theId);
+        eventPublisher.publishEvent(CatalogueChangedEvent.deleted(Author.class, theId));
     }
 
     @Override
@@ -60,8 +152,32 @@ public class AuthorServiceImpl implements AuthorService{
             book.setAuthor(existingAuthor);
         }
     }
+
+    @Override
+    public int assignBooks(int authorId, Collection<Integer> bookIds) {
+        List<Integer> ids = List.copyOf(new LinkedHashSet<>(bookIds));
+        int moved = transactionTemplate.execute(status -> {
+            Author author = authorRepository.findById(authorId)
+                    .orElseThrow(() -> new NotFoundException("Did not find author id - " + authorId));
+            int updated = 0;
+            // the IN list is cut into batches to stay clear of driver parameter limits
+            for (int from = 0; from < ids.size(); from += assignBatch) {
+                updated += bookRepository.assignAuthor(author, author.getAuthorName(),
+                        ids.subList(from, Math.min(ids.size(), from + assignBatch)));
+            }
+            return updated;
+        });
+        // after the commit, one bulk event like the import: the listeners reload once instead of
+        // handling thousands of single-book events
+        if (moved > 0) {
+            eventPublisher.publishEvent(CatalogueChangedEvent.bulk(Book.class));
+        }
+        return moved;
+    }
+
     @Override
     public Optional<Author> getAuthor(Integer authorId) {
-        return authorRepository.findById(authorId);
+        return snapshotStore.current().flatMap(snapshot -> snapshot.author(authorId))
+                .or(() -> authorRepository.findById(authorId));
     }
 }
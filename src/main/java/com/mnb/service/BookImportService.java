@@ -0,0 +1,13 @@
+package com.mnb.service;
+
+import com.mnb.dto.ImportResult;
+
+import java.io.Reader;
+
+public interface BookImportService {
+    // header row with the BookImportRow field names, then one book per record
+    ImportResult importCsv(Reader reader);
+
+    // either a JSON array of books or one JSON object per line
+    ImportResult importJson(Reader reader);
+}
@@ -0,0 +1,192 @@
+package com.mnb.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mnb.dto.BookImportRow;
+import com.mnb.dto.ImportResult;
+import com.mnb.entity.Author;
+import com.mnb.entity.Book;
+import com.mnb.entity.Publisher;
+import com.mnb.event.BulkWriteEvent;
+import com.mnb.event.CatalogueChangedEvent;
+import com.mnb.exception.ImportFailedException;
+import com.mnb.repository.AuthorRepository;
+import com.mnb.repository.PublisherRepository;
+import com.mnb.search.Isbn;
+import com.mnb.util.CsvReader;
+import jakarta.persistence.EntityManager;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams books from a CSV or JSON file into the database.
+ * <p>
+ * Rows are read one at a time and written in chunks, one transaction per chunk; the
+ * persistence context is flushed and cleared after every chunk so memory stays flat.
+ * With the pooled sequences on the entities, Hibernate sends each chunk as JDBC batches
+ * (see {@code hibernate.jdbc.batch_size}). Authors and publishers are matched by name
+ * (case-insensitive) against an in-memory lookup and created when missing, see {@link ReferenceNames}.
+ */
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookImportServiceImpl implements BookImportService {
+
+    public static final Logger logger = LoggerFactory.getLogger(BookImportServiceImpl.class);
+
+    final EntityManager entityManager;
+    final TransactionTemplate transactionTemplate;
+    final AuthorRepository authorRepository;
+    final PublisherRepository publisherRepository;
+    final ObjectMapper objectMapper;
+    final ApplicationEventPublisher eventPublisher;
+
+    @Value("${library.import.chunk-size:1000}")
+    int chunkSize = 1000;
+
+    public BookImportServiceImpl(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                 AuthorRepository authorRepository, PublisherRepository publisherRepository,
+                                 ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.authorRepository = authorRepository;
+        this.publisherRepository = publisherRepository;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public ImportResult importCsv(Reader reader) {
+        return importRows(new CsvRowIterator(new CsvReader(reader)));
+    }
+
+    @Override
+    public ImportResult importJson(Reader reader) {
+        try {
+            return importRows(objectMapper.readerFor(BookImportRow.class).readValues(reader));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ImportResult importRows(Iterator<BookImportRow> rows) {
+        long start = System.nanoTime();
+        ReferenceNames names = ReferenceNames.load(entityManager, authorRepository, publisherRepository);
+
+        long count = 0;
+        List<BookImportRow> chunk = new ArrayList<>(chunkSize);
+        eventPublisher.publishEvent(BulkWriteEvent.started());
+        try {
+            while (rows.hasNext()) {
+                chunk.add(rows.next());
+                if (chunk.size() == chunkSize || !rows.hasNext()) {
+                    transactionTemplate.executeWithoutResult(status -> persistChunk(chunk, names));
+                    count += chunk.size();
+                    chunk.clear();
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Import failed after {} books", count, e);
+            throw new ImportFailedException(count, e);
+        } finally {
+            // the committed chunks stay, caches and indexes must hear about them even when a later chunk failed
+            if (names.createdAuthors()) {
+                eventPublisher.publishEvent(CatalogueChangedEvent.bulk(Author.class));
+            }
+            if (names.createdPublishers()) {
+                eventPublisher.publishEvent(CatalogueChangedEvent.bulk(Publisher.class));
+            }
+            if (count > 0) {
+                eventPublisher.publishEvent(CatalogueChangedEvent.bulk(Book.class));
+            }
+            eventPublisher.publishEvent(BulkWriteEvent.finished());
+        }
+        ImportResult result = new ImportResult(count, (System.nanoTime() - start) / 1_000_000);
+        logger.info("Imported {} books in {} ms ({} rows/s)", result.getRows(), result.getElapsedMillis(),
+                result.getRowsPerSecond());
+        return result;
+    }
+
+    private void persistChunk(List<BookImportRow> chunk, ReferenceNames names) {
+        for (BookImportRow row : chunk) {
+            Book book = new Book();
+            book.setBookName(row.getBookName());
+            book.setBookSubname(row.getBookSubname());
+            book.setSerialName(row.getSerialName());
+            book.setBooksAuthor(row.getAuthor());
+            book.setBooksPublisher(row.getPublisher());
+            book.setDescription(row.getDescription());
+            book.setIsbn(Isbn.normalize(row.getIsbn()));
+            book.setAuthor(names.author(row.getAuthor()));
+            book.setPublisher(names.publisher(row.getPublisher()));
+            entityManager.persist(book);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * Maps CSV records to rows through the header, skipping blank lines.
+     */
+    private static class CsvRowIterator implements Iterator<BookImportRow> {
+        private final CsvReader csvReader;
+        private final List<String> header;
+        private List<String> next;
+
+        CsvRowIterator(CsvReader csvReader) {
+            this.csvReader = csvReader;
+            List<String> firstRecord = csvReader.readRecord();
+            this.header = firstRecord == null ? List.of() : firstRecord.stream().map(String::trim).toList();
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public BookImportRow next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            BookImportRow row = new BookImportRow();
+            for (int i = 0; i < header.size() && i < next.size(); i++) {
+                String value = next.get(i).isEmpty() ? null : next.get(i);
+                switch (header.get(i)) {
+                    case "bookName" -> row.setBookName(value);
+                    case "bookSubname" -> row.setBookSubname(value);
+                    case "serialName" -> row.setSerialName(value);
+                    case "author" -> row.setAuthor(value);
+                    case "publisher" -> row.setPublisher(value);
+                    case "description" -> row.setDescription(value);
+                    case "isbn" -> row.setIsbn(value);
+                    default -> {
+                        // unknown columns are ignored
+                    }
+                }
+            }
+            advance();
+            return row;
+        }
+
+        private void advance() {
+            do {
+                next = csvReader.readRecord();
+            } while (next != null && next.size() == 1 && next.get(0).isBlank());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.mnb.service;
+
+import com.mnb.entity.Author;
+import com.mnb.entity.Book;
+import com.mnb.entity.Publisher;
+import com.mnb.event.BulkWriteEvent;
+import com.mnb.event.CatalogueChangedEvent;
+import com.mnb.repository.AuthorRepository;
+import com.mnb.repository.BookRepository;
+import com.mnb.repository.PublisherRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Links the books saved before {@link BookReferenceResolver} existed to the Author and Publisher rows
+ * their typed names refer to.
+ * <p>
+ * Runs once in the background after startup. Unlinked books are read in keyset batches of
+ * {@code library.backfill.batch-size}, each batch in its own short transaction, so the job holds no
+ * long locks and can be interrupted at any point: the next run continues with what is still unlinked.
+ * Names are matched like the bulk import does ({@link ReferenceNames}), missing rows are created.
+ * Caches and indexes are told once at the end through bulk change events.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookReferenceBackfill {
+
+    public static final Logger logger = LoggerFactory.getLogger(BookReferenceBackfill.class);
+
+    final EntityManager entityManager;
+    final TransactionTemplate transactionTemplate;
+    final BookRepository bookRepository;
+    final AuthorRepository authorRepository;
+    final PublisherRepository publisherRepository;
+    final ApplicationEventPublisher eventPublisher;
+
+    @Value("${library.backfill.enabled:true}")
+    boolean enabled = true;
+
+    @Value("${library.backfill.batch-size:500}")
+    int batchSize = 500;
+
+    ExecutorService executor;
+
+    public BookReferenceBackfill(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                 BookRepository bookRepository, AuthorRepository authorRepository,
+                                 PublisherRepository publisherRepository, ApplicationEventPublisher eventPublisher) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.publisherRepository = publisherRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled || executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reference-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(() -> {
+            try {
+                run();
+            } catch (RuntimeException e) {
+                logger.warn("Linking books to their authors and publishers failed, the next start continues", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Links every unlinked book whose name is not blank.
+     *
+     * @return the number of books linked
+     */
+    public int run() {
+        long start = System.nanoTime();
+        ReferenceNames names = ReferenceNames.load(entityManager, authorRepository, publisherRepository);
+        int linked = 0;
+        int afterId = 0;
+        eventPublisher.publishEvent(BulkWriteEvent.started());
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                int from = afterId;
+                Batch batch = transactionTemplate.execute(status -> linkBatch(from, names));
+                linked += batch.linked();
+                if (batch.lastId() == null) {
+                    break;
+                }
+                afterId = batch.lastId();
+            }
+        } finally {
+            // the committed batches stay linked even when a later one failed
+            if (names.createdAuthors()) {
+                eventPublisher.publishEvent(CatalogueChangedEvent.bulk(Author.class));
+            }
+            if (names.createdPublishers()) {
+                eventPublisher.publishEvent(CatalogueChangedEvent.bulk(Publisher.class));
+            }
+            if (linked > 0) {
+                eventPublisher.publishEvent(CatalogueChangedEvent.bulk(Book.class));
+                logger.info("Linked {} books to their authors and publishers in {} ms", linked,
+                        (System.nanoTime() - start) / 1_000_000);
+            }
+            eventPublisher.publishEvent(BulkWriteEvent.finished());
+        }
+        return linked;
+    }
+
+    private Batch linkBatch(int afterId, ReferenceNames names) {
+        List<Book> books = bookRepository.findUnlinkedPageAfter(afterId, Limit.of(batchSize));
+        int linked = 0;
+        for (Book book : books) {
+            boolean changed = false;
+            if (book.getAuthor() == null) {
+                book.setAuthor(names.author(book.getBooksAuthor()));
+                changed = book.getAuthor() != null;
+            }
+            if (book.getPublisher() == null) {
+                book.setPublisher(names.publisher(book.getBooksPublisher()));
+                changed |= book.getPublisher() != null;
+            }
+            if (changed) {
+                linked++;
+            }
+        }
+        // the changes are written by dirty checking, as JDBC batches of updates
+        entityManager.flush();
+        entityManager.clear();
+        return new Batch(books.isEmpty() ? null : books.get(books.size() - 1).getId(), linked);
+    }
+
+    private record Batch(Integer lastId, int linked) {
+    }
+}
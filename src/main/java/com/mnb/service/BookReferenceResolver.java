@@ -0,0 +1,97 @@
+package com.mnb.service;
+
+import com.mnb.entity.Author;
+import com.mnb.entity.Book;
+import com.mnb.entity.Publisher;
+import com.mnb.repository.AuthorRepository;
+import com.mnb.repository.PublisherRepository;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Links a book to the Author and Publisher rows named by its typed booksAuthor/booksPublisher text.
+ * <p>
+ * The text is what the book form edits, so it decides: a name is matched case-insensitively against
+ * the existing rows (the lowest ID wins when several match) and a new, not yet persisted row is
+ * attached when none does; the cascade on Book then inserts it together with the book. A blank
+ * name clears the link, unless the book was linked in code, then the text is filled from the row.
+ * Writes that bypass the cascade insert the new rows with {@link #saveCreated} first.
+ * <p>
+ * The book form posts only the IDs of the linked rows. Their names are read by ID, which the
+ * second-level cache answers, so an edit that keeps the names runs no select here.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BookReferenceResolver {
+
+    final AuthorRepository authorRepository;
+    final PublisherRepository publisherRepository;
+
+    public BookReferenceResolver(AuthorRepository authorRepository, PublisherRepository publisherRepository) {
+        this.authorRepository = authorRepository;
+        this.publisherRepository = publisherRepository;
+    }
+
+    public void resolve(Book book) {
+        String authorName = book.getBooksAuthor();
+        if (book.getAuthor() != null && book.getAuthor().getAuthorName() == null) {
+            // posted back by the form: dropped together with its name, otherwise compared by name below
+            book.setAuthor(isBlank(authorName) || book.getAuthor().getId() == null ? null
+                    : authorRepository.findById(book.getAuthor().getId()).orElse(null));
+        }
+        if (isBlank(authorName)) {
+            book.setBooksAuthor(book.getAuthor() == null ? null : book.getAuthor().getAuthorName());
+        } else if (book.getAuthor() == null || !sameName(book.getAuthor().getAuthorName(), authorName)) {
+            book.setAuthor(findAuthor(authorName).orElseGet(() -> {
+                Author author = new Author();
+                author.setAuthorName(authorName.trim());
+                return author;
+            }));
+        }
+
+        String publisherName = book.getBooksPublisher();
+        if (book.getPublisher() != null && book.getPublisher().getPublisherName() == null) {
+            book.setPublisher(isBlank(publisherName) || book.getPublisher().getId() == null ? null
+                    : publisherRepository.findById(book.getPublisher().getId()).orElse(null));
+        }
+        if (isBlank(publisherName)) {
+            book.setBooksPublisher(book.getPublisher() == null ? null : book.getPublisher().getPublisherName());
+        } else if (book.getPublisher() == null || !sameName(book.getPublisher().getPublisherName(), publisherName)) {
+            book.setPublisher(findPublisher(publisherName).orElseGet(() -> {
+                Publisher publisher = new Publisher();
+                publisher.setPublisherName(publisherName.trim());
+                return publisher;
+            }));
+        }
+    }
+
+    // inserts the rows resolve attached but that are not persisted yet; must run in the caller's transaction
+    public void saveCreated(Book book) {
+        if (book.getAuthor() != null && book.getAuthor().getId() == null) {
+            authorRepository.save(book.getAuthor());
+        }
+        if (book.getPublisher() != null && book.getPublisher().getId() == null) {
+            publisherRepository.save(book.getPublisher());
+        }
+    }
+
+    public Optional<Author> findAuthor(String name) {
+        return isBlank(name) ? Optional.empty() : authorRepository.findFirstByAuthorNameIgnoreCaseOrderByIdAsc(name.trim());
+    }
+
+    public Optional<Publisher> findPublisher(String name) {
+        return isBlank(name) ? Optional.empty()
+                : publisherRepository.findFirstByPublisherNameIgnoreCaseOrderByIdAsc(name.trim());
+    }
+
+    private static boolean sameName(String current, String typed) {
+        return current != null && current.trim().equalsIgnoreCase(typed.trim());
+    }
+
+    private static boolean isBlank(String name) {
+        return name == null || name.isBlank();
+    }
+}
@@ -1,6 +1,7 @@
 package com.mnb.service;
 
 
+import com.mnb.dto.BookPage;
 import com.mnb.entity.Book;
 
 import java.util.List;
@@ -8,11 +9,37 @@ import java.util.List;
 public interface BookService {
     List<Book> findAll();
 
+    /**
+     * Returns one keyset page of books ordered by ID.
+     * When {@code before} is set the page ends just before that ID, otherwise it starts
+     * right after {@code after} (or at the beginning when both are null).
+     */
+    BookPage findPage(Integer after, Integer before, int size);
+
+    /**
+     * Same paging over the books of one author, read through the AUTHOR_ID index; Author.booksList is not used.
+     */
+    BookPage findPageByAuthor(int authorId, Integer after, Integer before, int size);
+
     Book findById(int theId);
 
+    /**
+     * Inserts a new book, or writes an existing one with a single UPDATE checked against its version.
+     *
+     * @throws org.springframework.dao.OptimisticLockingFailureException when the book was changed or deleted
+     * since the given version was read
+     */
     void save(Book theBook);
 
     void deleteById(int theId);
 
     List<Book> findBookByName(String keyword);
+
+    /**
+     * Search narrowed to the books linked to the named author and/or publisher (whole name, any case),
+     * read through the AUTHOR_ID/PUBLISHER_ID indexes instead of matching the typed names; a keyword,
+     * when given, is matched within those books only. At least one of author and publisher must be set,
+     * plain keyword searches go to {@link #findBookByName}.
+     */
+    List<Book> search(String keyword, String author, String publisher);
 }
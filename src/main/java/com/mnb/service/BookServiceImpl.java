@@ -1,47 +1,221 @@
 package com.mnb.service;
 
+import com.mnb.config.CacheConfig;
+import com.mnb.dto.BookPage;
+import com.mnb.dto.BookSummary;
+import com.mnb.event.CatalogueChangedEvent;
 import com.mnb.exception.NotFoundException;
 import com.mnb.repository.BookRepository;
+import com.mnb.entity.Author;
 import com.mnb.entity.Book;
+import com.mnb.entity.Publisher;
+import com.mnb.search.BookSearchIndex;
+import com.mnb.search.Isbn;
+import com.mnb.snapshot.CatalogueSnapshot;
+import com.mnb.snapshot.CatalogueSnapshotStore;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class BookServiceImpl implements BookService{
     final BookRepository bookRepository;
+    final BookSearchIndex searchIndex;
+    final ApplicationEventPublisher eventPublisher;
+    final CatalogueSnapshotStore snapshotStore;
+    final BookReferenceResolver referenceResolver;
+    final TransactionTemplate transactionTemplate;
 
-    public BookServiceImpl(BookRepository bookRepository) {
+    @Value("${library.search.max-results:200}")
+    int maxResults = 200;
+
+    public BookServiceImpl(BookRepository bookRepository, BookSearchIndex searchIndex,
+                           ApplicationEventPublisher eventPublisher, CatalogueSnapshotStore snapshotStore,
+                           BookReferenceResolver referenceResolver, PlatformTransactionManager transactionManager) {
         this.bookRepository = bookRepository;
+        this.searchIndex = searchIndex;
+        this.eventPublisher = eventPublisher;
+        this.snapshotStore = snapshotStore;
+        this.referenceResolver = referenceResolver;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
+    // the reads below are answered from the in-memory snapshot when it is enabled
     @Override
     public List<Book> findAll() {
-        return bookRepository.findAll();
+        return snapshotStore.current().map(CatalogueSnapshot::books).orElseGet(bookRepository::findAll);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookPage findPage(Integer after, Integer before, int size) {
+        return page(after, before, size, bookRepository::findSummaryPageAfter, bookRepository::findSummaryPageBefore);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BookPage findPageByAuthor(int authorId, Integer after, Integer before, int size) {
+        return page(after, before, size,
+                (afterId, limit) -> bookRepository.findSummaryPageByAuthorAfter(authorId, afterId, limit),
+                (beforeId, limit) -> bookRepository.findSummaryPageByAuthorBefore(authorId, beforeId, limit));
+    }
+
+    private static BookPage page(Integer after, Integer before, int size,
+                                 BiFunction<Integer, Limit, List<BookSummary>> pageAfter,
+                                 BiFunction<Integer, Limit, List<BookSummary>> pageBefore) {
+        // fetch one extra row to find out whether another page exists in that direction
+        Limit limit = Limit.of(size + 1);
+        if (before != null) {
+            List<BookSummary> rows = new ArrayList<>(pageBefore.apply(before, limit));
+            boolean hasPrevious = rows.size() > size;
+            if (hasPrevious) {
+                rows.remove(size);
+            }
+            Collections.reverse(rows);
+            Integer previousCursor = hasPrevious ? rows.get(0).getId() : null;
+            Integer nextCursor = rows.isEmpty() ? null : rows.get(rows.size() - 1).getId();
+            return new BookPage(rows, previousCursor, nextCursor, size);
+        }
+        int afterId = after == null ? 0 : after;
+        List<BookSummary> rows = new ArrayList<>(pageAfter.apply(afterId, limit));
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows.remove(size);
+        }
+        Integer previousCursor = null;
+        if (afterId > 0) {
+            previousCursor = rows.isEmpty() ? afterId + 1 : rows.get(0).getId();
+        }
+        Integer nextCursor = hasNext ? rows.get(rows.size() - 1).getId() : null;
+        return new BookPage(rows, previousCursor, nextCursor, size);
     }
 
     @Override
     public Book findById(int theId) {
-        return bookRepository.findById(theId)
+        // the snapshot follows commits, a book it does not know yet is looked up in db
+        return snapshotStore.current().flatMap(snapshot -> snapshot.book(theId))
+                .or(() -> bookRepository.findById(theId))
                 .orElseThrow(() -> new NotFoundException(String.format(" not found  with ID %d", theId)));
     }
 
     @Override
     public void save(Book theBook) {
-        bookRepository.save(theBook);
+        theBook.setIsbn(Isbn.normalize(theBook.getIsbn()));
+        boolean existing = theBook.getId() != null;
+        // the rows resolve reads stay managed until the book is written, a name nobody used before
+        // gets its row inserted in the same transaction as the book
+        Saved result = transactionTemplate.execute(status -> {
+            referenceResolver.resolve(theBook);
+            Author newAuthor = theBook.getAuthor() != null && theBook.getAuthor().getId() == null ? theBook.getAuthor() : null;
+            Publisher newPublisher = theBook.getPublisher() != null && theBook.getPublisher().getId() == null
+                    ? theBook.getPublisher() : null;
+            return new Saved(existing ? update(theBook) : bookRepository.save(theBook), newAuthor, newPublisher);
+        });
+        if (existing) {
+            theBook.setVersion(theBook.getVersion() + 1);
+        }
+        if (result.newAuthor() != null) {
+            eventPublisher.publishEvent(CatalogueChangedEvent.saved(Author.class, result.newAuthor().getId(), result.newAuthor()));
+        }
+        if (result.newPublisher() != null) {
+            eventPublisher.publishEvent(CatalogueChangedEvent.saved(Publisher.class, result.newPublisher().getId(),
+                    result.newPublisher()));
+        }
+        eventPublisher.publishEvent(CatalogueChangedEvent.saved(Book.class, theBook.getId(), result.book()));
+    }
+
+    // an edit is written with one versioned UPDATE, without the select a merge of the detached book would issue
+    private Book update(Book theBook) {
+        // without the version the form was loaded with there is nothing to guard the write, it has to be reloaded
+        if (theBook.getVersion() == null) {
+            throw new ObjectOptimisticLockingFailureException(Book.class, theBook.getId());
+        }
+        referenceResolver.saveCreated(theBook);
+        if (bookRepository.updateVersioned(theBook) == 0) {
+            throw new ObjectOptimisticLockingFailureException(Book.class, theBook.getId());
+        }
+        return theBook;
+    }
+
+    private record Saved(Book book, Author newAuthor, Publisher newPublisher) {
     }
 
     @Override
     public void deleteById(int theId) {
         bookRepository.deleteById(theId);
+        eventPublisher.publishEvent(CatalogueChangedEvent.deleted(Book.class, theId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Book> search(String keyword, String author, String publisher) {
+        boolean byAuthor = author != null && !author.isBlank();
+        boolean byPublisher = publisher != null && !publisher.isBlank();
+        if (!byAuthor && !byPublisher) {
+            throw new IllegalArgumentException("An author or publisher is required");
+        }
+        Optional<Integer> authorId = byAuthor ? referenceResolver.findAuthor(author).map(Author::getId) : Optional.empty();
+        Optional<Integer> publisherId = byPublisher
+                ? referenceResolver.findPublisher(publisher).map(Publisher::getId) : Optional.empty();
+        if (byAuthor && authorId.isEmpty() || byPublisher && publisherId.isEmpty()) {
+            return List.of();
+        }
+        String pattern = keyword == null || keyword.isBlank() ? "" : "%" + keyword.trim().toLowerCase(Locale.ROOT) + "%";
+        Limit limit = Limit.of(maxResults);
+        if (byAuthor && byPublisher) {
+            return bookRepository.searchByAuthorAndPublisher(authorId.get(), publisherId.get(), pattern, limit);
+        }
+        return byAuthor ? bookRepository.searchByAuthor(authorId.get(), pattern, limit)
+                : bookRepository.searchByPublisher(publisherId.get(), pattern, limit);
     }
 
+    // cached per normalised keyword; BookSearchCacheInvalidator drops the entries a save or delete affects
     @Override
+    @Cacheable(cacheNames = CacheConfig.BOOK_SEARCH, key = "#keyword == null ? '' : #keyword.trim().toLowerCase()", sync = true)
     public List<Book> findBookByName(String keyword) {
-        return bookRepository.findByName(keyword);
+        // barcode scanners submit a full ISBN: answer those from the unique index, a miss (or digits that only
+        // look like an ISBN) goes on to the title search
+        Optional<Book> byIsbn = Isbn.parse(keyword).flatMap(bookRepository::findByIsbn);
+        if (byIsbn.isPresent()) {
+            return List.of(byIsbn.get());
+        }
+        if (!searchIndex.isReady()) {
+            // still warming up: fall back to the scanning query
+            return bookRepository.findByName(keyword);
+        }
+        List<Integer> rankedIds = searchIndex.search(keyword);
+        if (rankedIds.isEmpty()) {
+            return List.of();
+        }
+        Optional<CatalogueSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().books(rankedIds);
+        }
+        Map<Integer, Book> booksById = bookRepository.findByIdIn(rankedIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return rankedIds.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 }
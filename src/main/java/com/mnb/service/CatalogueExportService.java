@@ -0,0 +1,26 @@
+package com.mnb.service;
+
+import java.io.OutputStream;
+
+public interface CatalogueExportService {
+
+    enum Format {
+        CSV("text/csv", "csv"),
+        JSONL("application/x-ndjson", "jsonl");
+
+        public final String contentType;
+        public final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+    }
+
+    // the book columns match the import format, so an export can be imported again
+    long exportBooks(Format format, OutputStream out);
+
+    long exportAuthors(Format format, OutputStream out);
+
+    long exportPublishers(Format format, OutputStream out);
+}
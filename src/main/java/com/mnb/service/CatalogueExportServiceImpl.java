@@ -0,0 +1,144 @@
+package com.mnb.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mnb.dto.AuthorSummary;
+import com.mnb.dto.PublisherSummary;
+import com.mnb.entity.Book;
+import com.mnb.repository.AuthorRepository;
+import com.mnb.repository.BookRepository;
+import com.mnb.repository.PublisherRepository;
+import com.mnb.util.CsvWriter;
+import jakarta.persistence.EntityManager;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes the catalogue straight from a forward-only database cursor to the response.
+ * <p>
+ * Rows are converted and written one at a time; each exported book is detached from the
+ * persistence context right away, so the heap use does not grow with the table size and
+ * the first bytes go out as soon as the first rows are fetched.
+ */
+@Service
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CatalogueExportServiceImpl implements CatalogueExportService {
+
+    public static final Logger logger = LoggerFactory.getLogger(CatalogueExportServiceImpl.class);
+
+    static final List<String> BOOK_COLUMNS = List.of("id", "bookName", "bookSubname", "serialName",
+            "author", "publisher", "description", "isbn");
+    static final List<String> AUTHOR_COLUMNS = List.of("id", "authorName", "description");
+    static final List<String> PUBLISHER_COLUMNS = List.of("id", "publisherName", "description");
+
+    final BookRepository bookRepository;
+    final AuthorRepository authorRepository;
+    final PublisherRepository publisherRepository;
+    final EntityManager entityManager;
+    final ObjectMapper objectMapper;
+
+    public CatalogueExportServiceImpl(BookRepository bookRepository, AuthorRepository authorRepository,
+                                      PublisherRepository publisherRepository, EntityManager entityManager,
+                                      ObjectMapper objectMapper) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.publisherRepository = publisherRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBooks(Format format, OutputStream out) {
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            return export("books", books, BOOK_COLUMNS, book -> {
+                Object[] values = {book.getId(), book.getBookName(), book.getBookSubname(), book.getSerialName(),
+                        book.getAuthor() != null ? book.getAuthor().getAuthorName() : book.getBooksAuthor(),
+                        book.getPublisher() != null ? book.getPublisher().getPublisherName() : book.getBooksPublisher(),
+                        book.getDescription(), book.getIsbn()};
+                entityManager.detach(book);
+                return values;
+            }, format, out);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportAuthors(Format format, OutputStream out) {
+        try (Stream<AuthorSummary> authors = authorRepository.streamAllSummaries()) {
+            return export("authors", authors, AUTHOR_COLUMNS,
+                    author -> new Object[]{author.getId(), author.getAuthorName(), author.getDescription()},
+                    format, out);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportPublishers(Format format, OutputStream out) {
+        try (Stream<PublisherSummary> publishers = publisherRepository.streamAllSummaries()) {
+            return export("publishers", publishers, PUBLISHER_COLUMNS,
+                    publisher -> new Object[]{publisher.getId(), publisher.getPublisherName(), publisher.getDescription()},
+                    format, out);
+        }
+    }
+
+    private <T> long export(String name, Stream<T> rows, List<String> columns, Function<T, Object[]> values,
+                            Format format, OutputStream out) {
+        long start = System.nanoTime();
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            Iterator<T> iterator = rows.iterator();
+            if (format == Format.CSV) {
+                CsvWriter csv = new CsvWriter(writer);
+                csv.writeRecord(columns.toArray());
+                while (iterator.hasNext()) {
+                    csv.writeRecord(values.apply(iterator.next()));
+                    count++;
+                }
+            } else {
+                JsonGenerator json = objectMapper.getFactory().createGenerator(writer)
+                        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                while (iterator.hasNext()) {
+                    writeJsonLine(json, columns, values.apply(iterator.next()));
+                    count++;
+                }
+                json.flush();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        logger.info("Exported {} {} as {} in {} ms", count, name, format, (System.nanoTime() - start) / 1_000_000);
+        return count;
+    }
+
+    private static void writeJsonLine(JsonGenerator json, List<String> columns, Object[] values) throws IOException {
+        json.writeStartObject();
+        for (int i = 0; i < columns.size(); i++) {
+            if (values[i] instanceof Integer number) {
+                json.writeNumberField(columns.get(i), number);
+            } else {
+                json.writeStringField(columns.get(i), values[i] == null ? null : values[i].toString());
+            }
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+}
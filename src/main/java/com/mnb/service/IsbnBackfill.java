@@ -0,0 +1,122 @@
+package com.mnb.service;
+
+import com.mnb.entity.Book;
+import com.mnb.event.BulkWriteEvent;
+import com.mnb.event.CatalogueChangedEvent;
+import com.mnb.repository.BookRepository;
+import com.mnb.search.Isbn;
+import jakarta.persistence.EntityManager;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Rewrites the ISBN-10s stored before {@link Isbn} normalised to ISBN-13, so that the lookup by
+ * ISBN finds those books too.
+ * <p>
+ * Runs once at startup, in keyset batches of {@code library.backfill.batch-size} with a transaction
+ * each. A book whose ISBN-13 is already taken by another row keeps its ISBN-10 and is logged, the
+ * unique key leaves the duplicate for an editor to resolve.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class IsbnBackfill {
+
+    public static final Logger logger = LoggerFactory.getLogger(IsbnBackfill.class);
+
+    final EntityManager entityManager;
+    final TransactionTemplate transactionTemplate;
+    final BookRepository bookRepository;
+    final ApplicationEventPublisher eventPublisher;
+
+    @Value("${library.backfill.enabled:true}")
+    boolean enabled = true;
+
+    @Value("${library.backfill.batch-size:500}")
+    int batchSize = 500;
+
+    public IsbnBackfill(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                        BookRepository bookRepository, ApplicationEventPublisher eventPublisher) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bookRepository = bookRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            run();
+        } catch (RuntimeException e) {
+            logger.warn("Converting ISBN-10s to ISBN-13 failed, the next start continues", e);
+        }
+    }
+
+    /**
+     * Converts every valid ISBN-10 to its ISBN-13.
+     *
+     * @return the number of books converted
+     */
+    public int run() {
+        int converted = 0;
+        int afterId = 0;
+        eventPublisher.publishEvent(BulkWriteEvent.started());
+        try {
+            while (true) {
+                int from = afterId;
+                Batch batch = transactionTemplate.execute(status -> convertBatch(from));
+                converted += batch.converted();
+                if (batch.lastId() == null) {
+                    break;
+                }
+                afterId = batch.lastId();
+            }
+        } finally {
+            if (converted > 0) {
+                eventPublisher.publishEvent(CatalogueChangedEvent.bulk(Book.class));
+                logger.info("Converted {} ISBN-10s to ISBN-13", converted);
+            }
+            eventPublisher.publishEvent(BulkWriteEvent.finished());
+        }
+        return converted;
+    }
+
+    private Batch convertBatch(int afterId) {
+        List<Book> books = bookRepository.findIsbn10PageAfter(afterId, Limit.of(batchSize));
+        int converted = 0;
+        for (Book book : books) {
+            String isbn13 = Isbn.normalize(book.getIsbn());
+            if (isbn13.equals(book.getIsbn())) {
+                continue;
+            }
+            if (bookRepository.findByIsbn(isbn13).isPresent()) {
+                logger.warn("Book {} keeps ISBN {}, its ISBN-13 {} belongs to another book",
+                        book.getId(), book.getIsbn(), isbn13);
+                continue;
+            }
+            book.setIsbn(isbn13);
+            converted++;
+        }
+        // written by dirty checking, which also bumps the versions
+        entityManager.flush();
+        entityManager.clear();
+        return new Batch(books.isEmpty() ? null : books.get(books.size() - 1).getId(), converted);
+    }
+
+    private record Batch(Integer lastId, int converted) {
+    }
+}
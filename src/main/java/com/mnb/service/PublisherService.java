@@ -1,5 +1,7 @@
 package com.mnb.service;
 
+import com.mnb.dto.CursorPage;
+import com.mnb.dto.PublisherSummary;
 import com.mnb.entity.Author;
 import com.mnb.entity.Publisher;
 
@@ -8,8 +10,21 @@ import java.util.List;
 public interface PublisherService {
     public List<Publisher> findAll();
 
+    public List<PublisherSummary> findAllSummaries();
+
+    /**
+     * Returns one keyset page of publishers ordered by ID, starting right after {@code after}.
+     */
+    CursorPage<PublisherSummary> findPage(Integer after, int size);
+
+    // case-insensitive substring match on the name
+    List<PublisherSummary> search(String keyword);
+
   public Publisher findById(int theId);
 
+    /**
+     * Inserts a new publisher or writes an existing one with a single versioned UPDATE, see {@link BookService#save}.
+     */
     public void save(Publisher thePublisher);
 
     public void deleteById(int theId);
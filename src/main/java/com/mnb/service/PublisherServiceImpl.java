@@ -1,11 +1,25 @@
 package com.mnb.service;
 
+import com.mnb.dto.CursorPage;
+import com.mnb.dto.PublisherSummary;
+import com.mnb.event.CatalogueChangedEvent;
 import com.mnb.exception.NotFoundException;
+import com.mnb.repository.BookRepository;
 import com.mnb.repository.PublisherRepository;
+import com.mnb.snapshot.CatalogueSnapshot;
+import com.mnb.snapshot.CatalogueSnapshotStore;
+import com.mnb.entity.Book;
 import com.mnb.entity.Publisher;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,30 +28,95 @@ import java.util.Optional;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class PublisherServiceImpl implements  PublisherService{
     final PublisherRepository publisherRepository;
+    final BookRepository bookRepository;
+    final ApplicationEventPublisher eventPublisher;
+    final CatalogueSnapshotStore snapshotStore;
+    final TransactionTemplate transactionTemplate;
 
-    public PublisherServiceImpl(PublisherRepository publisherRepository) {
+    @Value("${library.search.max-results:200}")
+    int maxResults = 200;
+
+    public PublisherServiceImpl(PublisherRepository publisherRepository, BookRepository bookRepository,
+                                ApplicationEventPublisher eventPublisher, CatalogueSnapshotStore snapshotStore,
+                                PlatformTransactionManager transactionManager) {
         this.publisherRepository = publisherRepository;
+        this.bookRepository = bookRepository;
+        this.eventPublisher = eventPublisher;
+        this.snapshotStore = snapshotStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
+    // the reads below are answered from the in-memory snapshot when it is enabled
     @Override
     public List<Publisher> findAll() {
-        return publisherRepository.findAll();
+        return snapshotStore.current().map(CatalogueSnapshot::publishers).orElseGet(publisherRepository::findAll);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PublisherSummary> findAllSummaries() {
+        return snapshotStore.current().map(CatalogueSnapshot::publisherSummaries)
+                .orElseGet(publisherRepository::findAllSummaries);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<PublisherSummary> findPage(Integer after, int size) {
+        // one extra row tells whether there is a next page
+        return CursorPage.of(publisherRepository.findSummaryPageAfter(after == null ? 0 : after, Limit.of(size + 1)),
+                size, PublisherSummary::getId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PublisherSummary> search(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return List.of();
+        }
+        Optional<CatalogueSnapshot> snapshot = snapshotStore.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().searchPublishers(keyword, maxResults);
+        }
+        return publisherRepository.searchSummaries(keyword.trim(), Limit.of(maxResults));
     }
 
     @Override
     public Publisher findById(int theId) {
-         return publisherRepository.findById(theId)
+         return snapshotStore.current().flatMap(snapshot -> snapshot.publisher(theId))
+                .or(() -> publisherRepository.findById(theId))
                 .orElseThrow(() -> new NotFoundException(String.format("Publisher not found  with ID %d", theId)));
     }
 
 
     @Override
     public void save(Publisher thePublisher) {
-        publisherRepository.save(thePublisher);
+        if (thePublisher.getId() == null) {
+            Publisher saved = publisherRepository.save(thePublisher);
+            eventPublisher.publishEvent(CatalogueChangedEvent.saved(Publisher.class, thePublisher.getId(), saved));
+            return;
+        }
+        int renamedBooks = transactionTemplate.execute(status -> update(thePublisher));
+        thePublisher.setVersion(thePublisher.getVersion() + 1);
+        eventPublisher.publishEvent(CatalogueChangedEvent.saved(Publisher.class, thePublisher.getId(), thePublisher));
+        if (renamedBooks > 0) {
+            // the indexes and the snapshot hold the publisher text of the books as well
+            eventPublisher.publishEvent(CatalogueChangedEvent.bulk(Book.class));
+        }
+    }
+
+    // one versioned UPDATE instead of merging the detached publisher, which selects it first, plus the
+    // publisher text of its books; returns the number of books whose text changed
+    private int update(Publisher thePublisher) {
+        // without the version the form was loaded with there is nothing to guard the write, it has to be reloaded
+        if (thePublisher.getVersion() == null || publisherRepository.updateVersioned(thePublisher) == 0) {
+            throw new ObjectOptimisticLockingFailureException(Publisher.class, thePublisher.getId());
+        }
+        return bookRepository.renamePublisher(thePublisher.getId(), thePublisher.getPublisherName());
     }
 
     @Override
     public void deleteById(int theId) {
         publisherRepository.deleteById(theId);
+        eventPublisher.publishEvent(CatalogueChangedEvent.deleted(Publisher.class, theId));
     }
 }
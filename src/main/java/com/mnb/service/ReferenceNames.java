@@ -0,0 +1,100 @@
+package com.mnb.service;
+
+import com.mnb.dto.AuthorSummary;
+import com.mnb.dto.PublisherSummary;
+import com.mnb.entity.Author;
+import com.mnb.entity.Publisher;
+import com.mnb.repository.AuthorRepository;
+import com.mnb.repository.PublisherRepository;
+import jakarta.persistence.EntityManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Case-insensitive lookup of author and publisher names for the bulk import and the
+ * reference backfill. All names are read once with the summary projections; a name that is
+ * not known yet is created on first use. Known names resolve to uninitialised references,
+ * so linking a book to them issues no select.
+ */
+final class ReferenceNames {
+
+    private final EntityManager entityManager;
+    private final Map<String, Integer> authorIds;
+    private final Map<String, Integer> publisherIds;
+    private final int knownAuthors;
+    private final int knownPublishers;
+
+    private ReferenceNames(EntityManager entityManager, Map<String, Integer> authorIds,
+                           Map<String, Integer> publisherIds) {
+        this.entityManager = entityManager;
+        this.authorIds = authorIds;
+        this.publisherIds = publisherIds;
+        this.knownAuthors = authorIds.size();
+        this.knownPublishers = publisherIds.size();
+    }
+
+    static ReferenceNames load(EntityManager entityManager, AuthorRepository authorRepository,
+                               PublisherRepository publisherRepository) {
+        return new ReferenceNames(entityManager,
+                index(authorRepository.findAllSummaries(), AuthorSummary::getAuthorName, AuthorSummary::getId),
+                index(publisherRepository.findAllSummaries(), PublisherSummary::getPublisherName, PublisherSummary::getId));
+    }
+
+    // must be called inside a transaction, a new author is persisted right away
+    Author author(String name) {
+        return resolve(name, authorIds, Author.class, trimmed -> {
+            Author author = new Author();
+            author.setAuthorName(trimmed);
+            return author;
+        });
+    }
+
+    Publisher publisher(String name) {
+        return resolve(name, publisherIds, Publisher.class, trimmed -> {
+            Publisher publisher = new Publisher();
+            publisher.setPublisherName(trimmed);
+            return publisher;
+        });
+    }
+
+    boolean createdAuthors() {
+        return authorIds.size() > knownAuthors;
+    }
+
+    boolean createdPublishers() {
+        return publisherIds.size() > knownPublishers;
+    }
+
+    private <T> T resolve(String name, Map<String, Integer> ids, Class<T> type, Function<String, T> creator) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String key = key(name);
+        Integer id = ids.get(key);
+        if (id != null) {
+            return entityManager.getReference(type, id);
+        }
+        T created = creator.apply(name.trim());
+        entityManager.persist(created);
+        ids.put(key, (Integer) entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(created));
+        return created;
+    }
+
+    private static <T> Map<String, Integer> index(List<T> rows, Function<T, String> name, Function<T, Integer> id) {
+        Map<String, Integer> ids = new HashMap<>();
+        for (T row : rows) {
+            if (name.apply(row) != null) {
+                ids.putIfAbsent(key(name.apply(row)), id.apply(row));
+            }
+        }
+        return ids;
+    }
+
+    static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,50 @@
+package com.mnb.snapshot;
+
+import jakarta.persistence.EntityManager;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.StringJoiner;
+
+/**
+ * Summarises the catalogue tables into a short string that changes with any row of them.
+ * <p>
+ * Per table: the row count, the highest ID and the sum of a hash over every column of each row,
+ * all computed by the database in one aggregate query. A {@link SnapshotFile} is only used when
+ * its fingerprint equals the current one, so edits made while the node was down (or by another
+ * node, or directly in SQL) make it fall back to loading from the database.
+ * {@code ORA_HASH} and {@code CONCAT_WS} are H2 functions, like the rest of the schema this
+ * assumes the embedded H2 database.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CatalogueFingerprint {
+
+    final EntityManager entityManager;
+
+    public CatalogueFingerprint(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Transactional(readOnly = true)
+    public String current() {
+        return String.join(";",
+                table("BOOK", "ID", "BOOK_NAME", "BOOK_SUBNAME", "BOOK_SERIAL_NAME", "BOOKS_AUTHOR", "BOOKS_PUBLISHER",
+                        "DESCRIPTION", "ISBN", "AUTHOR_ID", "PUBLISHER_ID", "VERSION"),
+                table("AUTHOR", "ID", "AUTHOR_NAME", "DESCRIPTION", "VERSION"),
+                table("PUBLISHER", "ID", "PUBLISHER_NAME", "DESCRIPTION", "VERSION"));
+    }
+
+    private String table(String table, String... columns) {
+        // nulls become a control character, so that a value moving to a neighbouring column shows
+        StringJoiner cells = new StringJoiner(", ");
+        for (String column : columns) {
+            cells.add("COALESCE(CAST(" + column + " AS VARCHAR), CHAR(0))");
+        }
+        Object[] row = (Object[]) entityManager.createNativeQuery("SELECT COUNT(*), COALESCE(MAX(ID), 0), "
+                + "COALESCE(SUM(ORA_HASH(CONCAT_WS(CHAR(31), " + cells + "))), 0) FROM " + table).getSingleResult();
+        return table + ":" + row[0] + ":" + row[1] + ":" + row[2];
+    }
+}
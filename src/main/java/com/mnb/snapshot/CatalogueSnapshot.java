@@ -0,0 +1,291 @@
+package com.mnb.snapshot;
+
+import com.mnb.dto.AuthorBookCount;
+import com.mnb.dto.AuthorSummary;
+import com.mnb.dto.BookRow;
+import com.mnb.dto.PublisherSummary;
+import com.mnb.dto.ReferenceRow;
+import com.mnb.entity.Author;
+import com.mnb.entity.Book;
+import com.mnb.entity.Publisher;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * An immutable copy of the catalogue in three {@link SnapshotTable}s.
+ * <p>
+ * Every read builds new, detached Book/Author/Publisher objects, so callers may modify them
+ * freely. Authors come without their books list: Author.booksList is the inverse side of
+ * Book.author and is not part of the snapshot.
+ */
+public final class CatalogueSnapshot {
+
+    // book text columns
+    static final int BOOK_NAME = 0;
+    static final int BOOK_SUBNAME = 1;
+    static final int SERIAL_NAME = 2;
+    static final int BOOKS_AUTHOR = 3;
+    static final int BOOKS_PUBLISHER = 4;
+    static final int BOOK_DESCRIPTION = 5;
+    static final int ISBN = 6;
+    static final int BOOK_TEXTS = 7;
+    // book int columns
+    static final int AUTHOR_ID = 0;
+    static final int PUBLISHER_ID = 1;
+    // the optimistic lock version, so the forms served from the snapshot can post it back
+    static final int BOOK_VERSION = 2;
+    static final int BOOK_REFS = 3;
+    // author and publisher columns: name, description, and the version as their int column
+    static final int NAME = 0;
+    static final int DESCRIPTION = 1;
+    static final int REFERENCE_TEXTS = 2;
+    static final int VERSION = 0;
+    static final int REFERENCE_REFS = 1;
+
+    static final CatalogueSnapshot EMPTY = new CatalogueSnapshot(SnapshotTable.empty(BOOK_TEXTS, BOOK_REFS),
+            SnapshotTable.empty(REFERENCE_TEXTS, REFERENCE_REFS), SnapshotTable.empty(REFERENCE_TEXTS, REFERENCE_REFS));
+
+    private final SnapshotTable books;
+    private final SnapshotTable authors;
+    private final SnapshotTable publishers;
+
+    CatalogueSnapshot(SnapshotTable books, SnapshotTable authors, SnapshotTable publishers) {
+        this.books = books;
+        this.authors = authors;
+        this.publishers = publishers;
+    }
+
+    public int bookCount() {
+        return books.size();
+    }
+
+    public Optional<Book> book(int id) {
+        return Optional.ofNullable(book(books.row(id)));
+    }
+
+    public List<Book> books() {
+        List<Book> result = new ArrayList<>(books.size());
+        books.forEach(row -> result.add(book(row)));
+        return result;
+    }
+
+    /**
+     * Visits the books in ID order without collecting them.
+     */
+    public void forEachBook(Consumer<Book> action) {
+        books.forEach(row -> action.accept(book(row)));
+    }
+
+    /**
+     * Returns the books with the given IDs in the order of the IDs, skipping unknown ones.
+     */
+    public List<Book> books(Collection<Integer> ids) {
+        List<Book> result = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Book book = book(books.row(id));
+            if (book != null) {
+                result.add(book);
+            }
+        }
+        return result;
+    }
+
+    public Optional<Author> author(int id) {
+        return Optional.ofNullable(author(authors.row(id)));
+    }
+
+    public List<Author> authors() {
+        List<Author> result = new ArrayList<>(authors.size());
+        authors.forEach(row -> result.add(author(row)));
+        return result;
+    }
+
+    public List<AuthorSummary> authorSummaries() {
+        List<AuthorSummary> result = new ArrayList<>(authors.size());
+        authors.forEach(row -> result.add(new AuthorSummary(row.id(), row.text(NAME), row.text(DESCRIPTION))));
+        return result;
+    }
+
+    // same as AuthorRepository.findAllWithBookCounts; only the author column of the books is read
+    public List<AuthorBookCount> authorBookCounts() {
+        Map<Integer, Integer> counts = new HashMap<>();
+        Map<Integer, SnapshotTable.Row> latest = new HashMap<>();
+        books.forEach(row -> {
+            if (row.ref(AUTHOR_ID) != 0) {
+                counts.merge(row.ref(AUTHOR_ID), 1, Integer::sum);
+                // rows come in ID order, the last one is the latest
+                latest.put(row.ref(AUTHOR_ID), row);
+            }
+        });
+        List<AuthorBookCount> result = new ArrayList<>(authors.size());
+        authors.forEach(row -> {
+            SnapshotTable.Row book = latest.get(row.id());
+            result.add(new AuthorBookCount(row.id(), row.text(NAME), row.text(DESCRIPTION),
+                    counts.getOrDefault(row.id(), 0), book == null ? null : book.text(BOOK_NAME)));
+        });
+        return result;
+    }
+
+    // same matching as AuthorRepository.searchSummaries
+    public List<AuthorSummary> searchAuthors(String keyword, int limit) {
+        String term = keyword.trim().toLowerCase(Locale.ROOT);
+        return authorSummaries().stream()
+                .filter(author -> author.getAuthorName() != null && author.getAuthorName().toLowerCase(Locale.ROOT).contains(term))
+                .sorted(Comparator.comparing(AuthorSummary::getAuthorName).thenComparing(AuthorSummary::getId))
+                .limit(limit)
+                .toList();
+    }
+
+    public Optional<Publisher> publisher(int id) {
+        return Optional.ofNullable(publisher(publishers.row(id)));
+    }
+
+    public List<Publisher> publishers() {
+        List<Publisher> result = new ArrayList<>(publishers.size());
+        publishers.forEach(row -> result.add(publisher(row)));
+        return result;
+    }
+
+    public List<PublisherSummary> publisherSummaries() {
+        List<PublisherSummary> result = new ArrayList<>(publishers.size());
+        publishers.forEach(row -> result.add(new PublisherSummary(row.id(), row.text(NAME), row.text(DESCRIPTION))));
+        return result;
+    }
+
+    public List<PublisherSummary> searchPublishers(String keyword, int limit) {
+        String term = keyword.trim().toLowerCase(Locale.ROOT);
+        return publisherSummaries().stream()
+                .filter(publisher -> publisher.getPublisherName() != null
+                        && publisher.getPublisherName().toLowerCase(Locale.ROOT).contains(term))
+                .sorted(Comparator.comparing(PublisherSummary::getPublisherName).thenComparing(PublisherSummary::getId))
+                .limit(limit)
+                .toList();
+    }
+
+    SnapshotTable bookTable() {
+        return books;
+    }
+
+    SnapshotTable authorTable() {
+        return authors;
+    }
+
+    SnapshotTable publisherTable() {
+        return publishers;
+    }
+
+    CatalogueSnapshot withBook(Book book) {
+        return new CatalogueSnapshot(books.with(book.getId(), texts(book), new int[]{
+                book.getAuthor() == null || book.getAuthor().getId() == null ? 0 : book.getAuthor().getId(),
+                book.getPublisher() == null || book.getPublisher().getId() == null ? 0 : book.getPublisher().getId(),
+                version(book.getVersion())}), authors, publishers);
+    }
+
+    CatalogueSnapshot withoutBook(int id) {
+        return new CatalogueSnapshot(books.without(id), authors, publishers);
+    }
+
+    CatalogueSnapshot withAuthor(Author author) {
+        return new CatalogueSnapshot(books, authors.with(author.getId(),
+                new String[]{author.getAuthorName(), author.getDescription()}, new int[]{version(author.getVersion())}),
+                publishers);
+    }
+
+    CatalogueSnapshot withoutAuthor(int id) {
+        return new CatalogueSnapshot(books, authors.without(id), publishers);
+    }
+
+    CatalogueSnapshot withPublisher(Publisher publisher) {
+        return new CatalogueSnapshot(books, authors, publishers.with(publisher.getId(),
+                new String[]{publisher.getPublisherName(), publisher.getDescription()},
+                new int[]{version(publisher.getVersion())}));
+    }
+
+    CatalogueSnapshot withoutPublisher(int id) {
+        return new CatalogueSnapshot(books, authors, publishers.without(id));
+    }
+
+    CatalogueSnapshot withBooks(SnapshotTable books) {
+        return new CatalogueSnapshot(books, authors, publishers);
+    }
+
+    CatalogueSnapshot withAuthors(SnapshotTable authors) {
+        return new CatalogueSnapshot(books, authors, publishers);
+    }
+
+    CatalogueSnapshot withPublishers(SnapshotTable publishers) {
+        return new CatalogueSnapshot(books, authors, publishers);
+    }
+
+    static void addBook(SnapshotTable.Builder builder, BookRow row) {
+        builder.add(row.getId(), new String[]{row.getBookName(), row.getBookSubname(), row.getSerialName(),
+                row.getBooksAuthor(), row.getBooksPublisher(), row.getDescription(), row.getIsbn()}, new int[]{
+                row.getAuthorId() == null ? 0 : row.getAuthorId(), row.getPublisherId() == null ? 0 : row.getPublisherId(),
+                version(row.getVersion())});
+    }
+
+    static void addReference(SnapshotTable.Builder builder, ReferenceRow row) {
+        builder.add(row.getId(), new String[]{row.getName(), row.getDescription()}, new int[]{version(row.getVersion())});
+    }
+
+    // a persisted row always has one, 0 is what Hibernate starts from
+    private static int version(Integer version) {
+        return version == null ? 0 : version;
+    }
+
+    private static String[] texts(Book book) {
+        return new String[]{book.getBookName(), book.getBookSubname(), book.getSerialName(), book.getBooksAuthor(),
+                book.getBooksPublisher(), book.getDescription(), book.getIsbn()};
+    }
+
+    private Book book(SnapshotTable.Row row) {
+        if (row == null) {
+            return null;
+        }
+        Book book = new Book();
+        book.setId(row.id());
+        book.setBookName(row.text(BOOK_NAME));
+        book.setBookSubname(row.text(BOOK_SUBNAME));
+        book.setSerialName(row.text(SERIAL_NAME));
+        book.setBooksAuthor(row.text(BOOKS_AUTHOR));
+        book.setBooksPublisher(row.text(BOOKS_PUBLISHER));
+        book.setDescription(row.text(BOOK_DESCRIPTION));
+        book.setIsbn(row.text(ISBN));
+        book.setVersion(row.ref(BOOK_VERSION));
+        book.setAuthor(author(authors.row(row.ref(AUTHOR_ID))));
+        book.setPublisher(publisher(publishers.row(row.ref(PUBLISHER_ID))));
+        return book;
+    }
+
+    private static Author author(SnapshotTable.Row row) {
+        if (row == null) {
+            return null;
+        }
+        Author author = new Author();
+        author.setId(row.id());
+        author.setAuthorName(row.text(NAME));
+        author.setDescription(row.text(DESCRIPTION));
+        author.setVersion(row.ref(VERSION));
+        return author;
+    }
+
+    private static Publisher publisher(SnapshotTable.Row row) {
+        if (row == null) {
+            return null;
+        }
+        Publisher publisher = new Publisher();
+        publisher.setId(row.id());
+        publisher.setPublisherName(row.text(NAME));
+        publisher.setDescription(row.text(DESCRIPTION));
+        publisher.setVersion(row.ref(VERSION));
+        return publisher;
+    }
+}
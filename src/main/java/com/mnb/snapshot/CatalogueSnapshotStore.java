@@ -0,0 +1,268 @@
+package com.mnb.snapshot;
+
+import com.mnb.dto.BookRow;
+import com.mnb.dto.ReferenceRow;
+import com.mnb.entity.Author;
+import com.mnb.entity.Book;
+import com.mnb.entity.Publisher;
+import com.mnb.event.BulkWriteEvent;
+import com.mnb.event.CatalogueChangedEvent;
+import com.mnb.repository.AuthorRepository;
+import com.mnb.repository.BookRepository;
+import com.mnb.repository.PublisherRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds the current {@link CatalogueSnapshot} when {@code library.snapshot.enabled} is set.
+ * <p>
+ * The snapshot is loaded once the application is ready. Every {@link CatalogueChangedEvent}
+ * then derives a new snapshot that differs in one table segment (a bulk change reloads the
+ * table) and swaps it in atomically, after the commit. Readers take whatever snapshot is current
+ * without locking; writers are serialised.
+ * <p>
+ * With {@code library.snapshot.file} set, the snapshot is also saved to that file (see
+ * {@link SnapshotFile}) every {@code library.snapshot.save-interval} when it changed, and on
+ * shutdown. At startup the file is mapped back instead of querying the tables, provided its
+ * {@link CatalogueFingerprint} still matches the database; otherwise it is ignored.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CatalogueSnapshotStore {
+
+    public static final Logger logger = LoggerFactory.getLogger(CatalogueSnapshotStore.class);
+
+    static final int LOAD_BATCH = 5000;
+
+    final BookRepository bookRepository;
+    final AuthorRepository authorRepository;
+    final PublisherRepository publisherRepository;
+    final CatalogueFingerprint fingerprint;
+    final AtomicReference<CatalogueSnapshot> current = new AtomicReference<>();
+    final ReentrantLock writeLock = new ReentrantLock();
+    final ReentrantLock saveLock = new ReentrantLock();
+    // the snapshot the file holds, saving it again is skipped
+    volatile CatalogueSnapshot saved;
+    // imports and backfills running: their committed chunks are in the tables but not yet in the snapshot
+    final AtomicInteger bulkWrites = new AtomicInteger();
+    ScheduledExecutorService saver;
+
+    @Value("${library.snapshot.enabled:false}")
+    boolean enabled;
+
+    @Value("${library.snapshot.file:}")
+    String file = "";
+
+    @Value("${library.snapshot.save-interval:10m}")
+    Duration saveInterval = Duration.ofMinutes(10);
+
+    public CatalogueSnapshotStore(BookRepository bookRepository, AuthorRepository authorRepository,
+                                  PublisherRepository publisherRepository, CatalogueFingerprint fingerprint) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.publisherRepository = publisherRepository;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Returns the current snapshot, or nothing while it is disabled or not loaded yet.
+     */
+    public Optional<CatalogueSnapshot> current() {
+        return Optional.ofNullable(current.get());
+    }
+
+    // before the search indexes, which are built from the snapshot when there is one
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        writeLock.lock();
+        try {
+            CatalogueSnapshot fromFile = readFile();
+            current.set(fromFile != null ? fromFile : CatalogueSnapshot.EMPTY.withBooks(loadBooks())
+                    .withAuthors(loadAuthors()).withPublishers(loadPublishers()));
+            saved = fromFile;
+        } finally {
+            writeLock.unlock();
+        }
+        logger.info("Loaded a snapshot of {} books from {} in {} ms", current.get().bookCount(),
+                saved != null ? file : "the database", (System.nanoTime() - start) / 1_000_000);
+        if (!file.isBlank() && saveInterval.isPositive() && saver == null) {
+            saver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "snapshot-saver");
+                thread.setDaemon(true);
+                return thread;
+            });
+            saver.scheduleWithFixedDelay(this::saveQuietly, saveInterval.toMillis(), saveInterval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes the current snapshot to the file unless it is already there.
+     *
+     * @return whether the file was written
+     */
+    public boolean save() throws IOException {
+        if (file.isBlank()) {
+            return false;
+        }
+        saveLock.lock();
+        try {
+            CatalogueSnapshot snapshot = current.get();
+            // the fingerprint would match chunks the snapshot has not seen yet, the save after the bulk write follows
+            if (snapshot == null || snapshot == saved || bulkWrites.get() > 0) {
+                return false;
+            }
+            String databaseFingerprint = fingerprint.current();
+            // a change that committed meanwhile may be missing from the snapshot, the next save catches up
+            if (current.get() != snapshot || bulkWrites.get() > 0) {
+                return false;
+            }
+            long start = System.nanoTime();
+            SnapshotFile.write(Path.of(file), snapshot, databaseFingerprint);
+            saved = snapshot;
+            logger.info("Saved a snapshot of {} books to {} in {} ms", snapshot.bookCount(), file,
+                    (System.nanoTime() - start) / 1_000_000);
+            return true;
+        } finally {
+            saveLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (saver != null) {
+            saver.shutdownNow();
+        }
+        saveQuietly();
+    }
+
+    private void saveQuietly() {
+        try {
+            save();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not save the snapshot to {}", file, e);
+        }
+    }
+
+    private CatalogueSnapshot readFile() {
+        if (file.isBlank() || !Files.exists(Path.of(file))) {
+            return null;
+        }
+        try {
+            SnapshotFile.Stored stored = SnapshotFile.read(Path.of(file));
+            if (!stored.fingerprint().equals(fingerprint.current())) {
+                logger.info("Ignoring {}, the database changed since it was saved", file);
+                return null;
+            }
+            return stored.snapshot();
+        } catch (IOException e) {
+            logger.warn("Ignoring {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    @EventListener
+    public void onBulkWrite(BulkWriteEvent event) {
+        if (event.isFinished()) {
+            bulkWrites.decrementAndGet();
+        } else {
+            bulkWrites.incrementAndGet();
+        }
+    }
+
+    // after the commit, so that the snapshot never shows rows that may still roll back
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogueChanged(CatalogueChangedEvent event) {
+        if (current.get() == null) {
+            return;
+        }
+        if (event.concerns(Book.class)) {
+            apply(event, snapshot -> snapshot.withBooks(loadBooks()),
+                    snapshot -> snapshot.withBook((Book) event.getEntity()),
+                    snapshot -> snapshot.withoutBook(event.getEntityId()));
+        } else if (event.concerns(Author.class)) {
+            apply(event, snapshot -> snapshot.withAuthors(loadAuthors()),
+                    snapshot -> snapshot.withAuthor((Author) event.getEntity()),
+                    snapshot -> snapshot.withoutAuthor(event.getEntityId()));
+        } else if (event.concerns(Publisher.class)) {
+            apply(event, snapshot -> snapshot.withPublishers(loadPublishers()),
+                    snapshot -> snapshot.withPublisher((Publisher) event.getEntity()),
+                    snapshot -> snapshot.withoutPublisher(event.getEntityId()));
+        }
+    }
+
+    private void apply(CatalogueChangedEvent event, UnaryOperator<CatalogueSnapshot> bulk,
+                       UnaryOperator<CatalogueSnapshot> saved, UnaryOperator<CatalogueSnapshot> deleted) {
+        UnaryOperator<CatalogueSnapshot> change = switch (event.getChange()) {
+            case BULK -> bulk;
+            case SAVED -> saved;
+            case DELETED -> deleted;
+        };
+        writeLock.lock();
+        try {
+            current.set(change.apply(current.get()));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private SnapshotTable loadBooks() {
+        SnapshotTable.Builder builder = SnapshotTable.builder(CatalogueSnapshot.BOOK_TEXTS, CatalogueSnapshot.BOOK_REFS);
+        int after = 0;
+        List<BookRow> batch;
+        do {
+            batch = bookRepository.findRowPageAfter(after, Limit.of(LOAD_BATCH));
+            for (BookRow row : batch) {
+                CatalogueSnapshot.addBook(builder, row);
+                after = row.getId();
+            }
+        } while (batch.size() == LOAD_BATCH);
+        return builder.build();
+    }
+
+    private SnapshotTable loadAuthors() {
+        SnapshotTable.Builder builder = SnapshotTable.builder(CatalogueSnapshot.REFERENCE_TEXTS, CatalogueSnapshot.REFERENCE_REFS);
+        for (ReferenceRow author : authorRepository.findAllRows()) {
+            CatalogueSnapshot.addReference(builder, author);
+        }
+        return builder.build();
+    }
+
+    private SnapshotTable loadPublishers() {
+        SnapshotTable.Builder builder = SnapshotTable.builder(CatalogueSnapshot.REFERENCE_TEXTS, CatalogueSnapshot.REFERENCE_REFS);
+        for (ReferenceRow publisher : publisherRepository.findAllRows()) {
+            CatalogueSnapshot.addReference(builder, publisher);
+        }
+        return builder.build();
+    }
+}
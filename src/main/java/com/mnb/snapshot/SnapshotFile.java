@@ -0,0 +1,114 @@
+package com.mnb.snapshot;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Saves a {@link CatalogueSnapshot} to a memory-mapped file and maps it back.
+ * <p>
+ * Layout: magic, format version, the database fingerprint the snapshot was taken at
+ * (see {@link CatalogueFingerprint}), the CRC32 and length of the body, and the body: the book,
+ * author and publisher tables as written by {@link SnapshotTable}. A file is written next to the
+ * target and moved over it, so readers see either the old or the new file, never a partial one.
+ * Mapping limits a file to 2 GB.
+ */
+public final class SnapshotFile {
+
+    static final long MAGIC = 0x4C4942534E415031L; // "LIBSNAP1"
+    // bump whenever the layout or the snapshot columns change, older files are then ignored
+    static final int FORMAT_VERSION = 2;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * A snapshot read back together with the fingerprint it was saved with.
+     */
+    public record Stored(CatalogueSnapshot snapshot, String fingerprint) {
+    }
+
+    public static void write(Path path, CatalogueSnapshot snapshot, String fingerprint) throws IOException {
+        byte[] fingerprintBytes = fingerprint.getBytes(StandardCharsets.UTF_8);
+        long bodySize = snapshot.bookTable().serializedSize() + snapshot.authorTable().serializedSize()
+                + snapshot.publisherTable().serializedSize();
+        long headerSize = Long.BYTES + 2 * Integer.BYTES + fingerprintBytes.length + 2 * Long.BYTES;
+        if (headerSize + bodySize > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot of " + (headerSize + bodySize) + " bytes is too large to map");
+        }
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, headerSize + bodySize);
+            buffer.putLong(MAGIC).putInt(FORMAT_VERSION).putInt(fingerprintBytes.length).put(fingerprintBytes);
+            int checksumAt = buffer.position();
+            buffer.putLong(0).putLong(bodySize);
+            int bodyAt = buffer.position();
+            snapshot.bookTable().writeTo(buffer);
+            snapshot.authorTable().writeTo(buffer);
+            snapshot.publisherTable().writeTo(buffer);
+            buffer.putLong(checksumAt, checksum(buffer.slice(bodyAt, (int) bodySize)));
+            buffer.force();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps the file and copies its tables onto the heap.
+     *
+     * @throws IOException when the file cannot be read, is not a snapshot of this format or is damaged
+     */
+    public static Stored read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a snapshot file: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getLong() != MAGIC) {
+                throw new IOException("Not a snapshot file: " + path);
+            }
+            int version = buffer.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format " + version + " in " + path);
+            }
+            byte[] fingerprint = new byte[buffer.getInt()];
+            buffer.get(fingerprint);
+            long expectedChecksum = buffer.getLong();
+            long bodySize = buffer.getLong();
+            if (bodySize != buffer.remaining()) {
+                throw new IOException("Truncated snapshot file: " + path);
+            }
+            if (checksum(buffer.slice()) != expectedChecksum) {
+                throw new IOException("Checksum mismatch in snapshot file: " + path);
+            }
+            CatalogueSnapshot snapshot = CatalogueSnapshot.EMPTY
+                    .withBooks(SnapshotTable.readFrom(buffer, CatalogueSnapshot.BOOK_TEXTS, CatalogueSnapshot.BOOK_REFS))
+                    .withAuthors(SnapshotTable.readFrom(buffer, CatalogueSnapshot.REFERENCE_TEXTS,
+                            CatalogueSnapshot.REFERENCE_REFS))
+                    .withPublishers(SnapshotTable.readFrom(buffer, CatalogueSnapshot.REFERENCE_TEXTS,
+                            CatalogueSnapshot.REFERENCE_REFS));
+            return new Stored(snapshot, new String(fingerprint, StandardCharsets.UTF_8));
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                | NegativeArraySizeException e) {
+            throw new IOException("Damaged snapshot file: " + path, e);
+        }
+    }
+
+    private static long checksum(ByteBuffer body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,373 @@
+package com.mnb.snapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Immutable int-keyed table of string and int columns, the storage of {@link CatalogueSnapshot}.
+ * <p>
+ * Rows are grouped into segments of {@value #SEGMENT_SIZE} consecutive IDs. A segment keeps its
+ * rows in a handful of flat arrays: the sorted IDs, the int columns, and the UTF-8 bytes of all
+ * its strings with their offsets. A million rows are therefore a few thousand objects instead of
+ * millions of entities and strings, and a lookup is an array index plus a binary search.
+ * Changing a row copies only its segment and the segment array; all other segments are shared
+ * with the previous version, so readers of that version are never disturbed.
+ * <p>
+ * The same flat arrays are what {@link SnapshotFile} writes out and reads back, so saving and
+ * loading a table is a bulk copy per segment.
+ */
+public final class SnapshotTable {
+
+    static final int SEGMENT_BITS = 10;
+    static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    // never part of UTF-8, so a cell of just this byte can stand for null
+    static final byte NULL_MARK = (byte) 0xFF;
+
+    private final int textColumns;
+    private final int refColumns;
+    private final Segment[] segments;
+    private final int size;
+
+    private SnapshotTable(int textColumns, int refColumns, Segment[] segments, int size) {
+        this.textColumns = textColumns;
+        this.refColumns = refColumns;
+        this.segments = segments;
+        this.size = size;
+    }
+
+    public static SnapshotTable empty(int textColumns, int refColumns) {
+        return new SnapshotTable(textColumns, refColumns, new Segment[0], 0);
+    }
+
+    /**
+     * Builds a table from rows added in ascending ID order.
+     */
+    public static Builder builder(int textColumns, int refColumns) {
+        return new Builder(textColumns, refColumns);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a view of the row, or null when there is no row with that ID.
+     */
+    public Row row(int id) {
+        int index = id >>> SEGMENT_BITS;
+        Segment segment = id < 0 || index >= segments.length ? null : segments[index];
+        if (segment == null) {
+            return null;
+        }
+        int position = Arrays.binarySearch(segment.ids, id);
+        return position < 0 ? null : new Row(segment, position);
+    }
+
+    /**
+     * Visits the rows in ID order.
+     */
+    public void forEach(Consumer<Row> action) {
+        for (Segment segment : segments) {
+            if (segment != null) {
+                for (int i = 0; i < segment.ids.length; i++) {
+                    action.accept(new Row(segment, i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a table with the row added or replaced.
+     */
+    public SnapshotTable with(int id, String[] texts, int[] refs) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative ID " + id);
+        }
+        int index = id >>> SEGMENT_BITS;
+        Segment old = index < segments.length ? segments[index] : null;
+        SegmentBuilder builder = new SegmentBuilder(textColumns, refColumns);
+        boolean added = false;
+        boolean replaced = false;
+        if (old != null) {
+            for (int i = 0; i < old.ids.length; i++) {
+                if (old.ids[i] == id) {
+                    replaced = true;
+                    continue;
+                }
+                if (!added && old.ids[i] > id) {
+                    builder.add(id, texts, refs);
+                    added = true;
+                }
+                builder.copy(old, i);
+            }
+        }
+        if (!added) {
+            builder.add(id, texts, refs);
+        }
+        Segment[] copy = Arrays.copyOf(segments, Math.max(segments.length, index + 1));
+        copy[index] = builder.build();
+        return new SnapshotTable(textColumns, refColumns, copy, replaced ? size : size + 1);
+    }
+
+    /**
+     * Returns a table without the row, or this table when there is no such row.
+     */
+    public SnapshotTable without(int id) {
+        if (row(id) == null) {
+            return this;
+        }
+        int index = id >>> SEGMENT_BITS;
+        Segment old = segments[index];
+        SegmentBuilder builder = new SegmentBuilder(textColumns, refColumns);
+        for (int i = 0; i < old.ids.length; i++) {
+            if (old.ids[i] != id) {
+                builder.copy(old, i);
+            }
+        }
+        Segment[] copy = segments.clone();
+        copy[index] = builder.isEmpty() ? null : builder.build();
+        return new SnapshotTable(textColumns, refColumns, copy, size - 1);
+    }
+
+    // header, then per segment its index, row count, text length and arrays
+    long serializedSize() {
+        long bytes = 5 * Integer.BYTES;
+        for (Segment segment : segments) {
+            if (segment != null) {
+                bytes += 3 * Integer.BYTES + (long) Integer.BYTES
+                        * (segment.ids.length + segment.refs.length + segment.starts.length) + segment.text.length;
+            }
+        }
+        return bytes;
+    }
+
+    void writeTo(ByteBuffer buffer) {
+        int count = 0;
+        for (Segment segment : segments) {
+            if (segment != null) {
+                count++;
+            }
+        }
+        buffer.putInt(textColumns).putInt(refColumns).putInt(size).putInt(segments.length).putInt(count);
+        for (int index = 0; index < segments.length; index++) {
+            Segment segment = segments[index];
+            if (segment != null) {
+                buffer.putInt(index).putInt(segment.ids.length).putInt(segment.text.length);
+                putInts(buffer, segment.ids);
+                putInts(buffer, segment.refs);
+                putInts(buffer, segment.starts);
+                buffer.put(segment.text);
+            }
+        }
+    }
+
+    /**
+     * Reads a table written by {@link #writeTo}, expecting the given columns.
+     */
+    static SnapshotTable readFrom(ByteBuffer buffer, int textColumns, int refColumns) {
+        if (buffer.getInt() != textColumns || buffer.getInt() != refColumns) {
+            throw new IllegalArgumentException("Unexpected table columns");
+        }
+        int size = buffer.getInt();
+        Segment[] segments = new Segment[buffer.getInt()];
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            int index = buffer.getInt();
+            int rows = buffer.getInt();
+            byte[] text = new byte[buffer.getInt()];
+            int[] ids = getInts(buffer, rows);
+            int[] refs = getInts(buffer, rows * refColumns);
+            int[] starts = getInts(buffer, rows * textColumns + 1);
+            buffer.get(text);
+            segments[index] = new Segment(textColumns, refColumns, ids, refs, starts, text);
+        }
+        return new SnapshotTable(textColumns, refColumns, segments, size);
+    }
+
+    private static void putInts(ByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+    }
+
+    private static int[] getInts(ByteBuffer buffer, int length) {
+        int[] values = new int[length];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + length * Integer.BYTES);
+        return values;
+    }
+
+    /**
+     * A view of one row; the strings are decoded when asked for.
+     */
+    public static final class Row {
+        private final Segment segment;
+        private final int position;
+
+        private Row(Segment segment, int position) {
+            this.segment = segment;
+            this.position = position;
+        }
+
+        public int id() {
+            return segment.ids[position];
+        }
+
+        public String text(int column) {
+            int cell = position * segment.textColumns + column;
+            int start = segment.starts[cell];
+            int length = segment.starts[cell + 1] - start;
+            if (length == 1 && segment.text[start] == NULL_MARK) {
+                return null;
+            }
+            return new String(segment.text, start, length, StandardCharsets.UTF_8);
+        }
+
+        // 0 when not set
+        public int ref(int column) {
+            return segment.refs[position * segment.refColumns + column];
+        }
+    }
+
+    public static final class Builder {
+        private final int textColumns;
+        private final int refColumns;
+        private final List<Segment> segments = new ArrayList<>();
+        private SegmentBuilder current;
+        private int currentIndex = -1;
+        private int lastId = -1;
+        private int size;
+
+        private Builder(int textColumns, int refColumns) {
+            this.textColumns = textColumns;
+            this.refColumns = refColumns;
+        }
+
+        public Builder add(int id, String[] texts, int[] refs) {
+            if (id <= lastId) {
+                throw new IllegalArgumentException("IDs must ascend, got " + id + " after " + lastId);
+            }
+            int index = id >>> SEGMENT_BITS;
+            if (index != currentIndex) {
+                flush();
+                current = new SegmentBuilder(textColumns, refColumns);
+                currentIndex = index;
+            }
+            current.add(id, texts, refs);
+            lastId = id;
+            size++;
+            return this;
+        }
+
+        public SnapshotTable build() {
+            flush();
+            Segment[] array = new Segment[currentIndex + 1];
+            for (Segment segment : segments) {
+                array[segment.ids[0] >>> SEGMENT_BITS] = segment;
+            }
+            return new SnapshotTable(textColumns, refColumns, array, size);
+        }
+
+        private void flush() {
+            if (current != null && !current.isEmpty()) {
+                segments.add(current.build());
+            }
+            current = null;
+        }
+    }
+
+    private static final class Segment {
+        final int textColumns;
+        final int refColumns;
+        final int[] ids;
+        final int[] refs;
+        // start of every cell in text, plus the end of the last one
+        final int[] starts;
+        final byte[] text;
+
+        Segment(int textColumns, int refColumns, int[] ids, int[] refs, int[] starts, byte[] text) {
+            this.textColumns = textColumns;
+            this.refColumns = refColumns;
+            this.ids = ids;
+            this.refs = refs;
+            this.starts = starts;
+            this.text = text;
+        }
+    }
+
+    private static final class SegmentBuilder {
+        final int textColumns;
+        final int refColumns;
+        int rows;
+        int[] ids = new int[16];
+        int[] refs;
+        int[] starts;
+        byte[] text = new byte[256];
+        int length;
+
+        SegmentBuilder(int textColumns, int refColumns) {
+            this.textColumns = textColumns;
+            this.refColumns = refColumns;
+            this.refs = new int[16 * refColumns];
+            this.starts = new int[16 * textColumns + 1];
+        }
+
+        boolean isEmpty() {
+            return rows == 0;
+        }
+
+        void add(int id, String[] texts, int[] values) {
+            grow();
+            ids[rows] = id;
+            System.arraycopy(values, 0, refs, rows * refColumns, refColumns);
+            for (int column = 0; column < textColumns; column++) {
+                starts[rows * textColumns + column] = length;
+                if (texts[column] == null) {
+                    append(new byte[]{NULL_MARK}, 0, 1);
+                } else {
+                    byte[] bytes = texts[column].getBytes(StandardCharsets.UTF_8);
+                    append(bytes, 0, bytes.length);
+                }
+            }
+            rows++;
+        }
+
+        // the raw bytes of a row of another segment, nothing is decoded
+        void copy(Segment segment, int position) {
+            grow();
+            ids[rows] = segment.ids[position];
+            System.arraycopy(segment.refs, position * refColumns, refs, rows * refColumns, refColumns);
+            for (int column = 0; column < textColumns; column++) {
+                int cell = position * textColumns + column;
+                starts[rows * textColumns + column] = length;
+                append(segment.text, segment.starts[cell], segment.starts[cell + 1] - segment.starts[cell]);
+            }
+            rows++;
+        }
+
+        Segment build() {
+            starts[rows * textColumns] = length;
+            return new Segment(textColumns, refColumns, Arrays.copyOf(ids, rows), Arrays.copyOf(refs, rows * refColumns),
+                    Arrays.copyOf(starts, rows * textColumns + 1), Arrays.copyOf(text, length));
+        }
+
+        private void grow() {
+            if (rows == ids.length) {
+                ids = Arrays.copyOf(ids, rows * 2);
+                refs = Arrays.copyOf(refs, rows * 2 * refColumns);
+                starts = Arrays.copyOf(starts, rows * 2 * textColumns + 1);
+            }
+        }
+
+        private void append(byte[] source, int offset, int count) {
+            if (length + count > text.length) {
+                text = Arrays.copyOf(text, Math.max(text.length * 2, length + count));
+            }
+            System.arraycopy(source, offset, text, length, count);
+            length += count;
+        }
+    }
+}
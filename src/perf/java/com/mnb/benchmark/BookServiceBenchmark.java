@@ -0,0 +1,72 @@
+package com.mnb.benchmark;
+
+import com.mnb.dto.BookPage;
+import com.mnb.entity.Book;
+import com.mnb.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths of {@link BookService}: the full list, one keyset page, lookup by id and the
+ * keyword search (title fragment, author and full ISBN).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookServiceBenchmark {
+
+    BookService bookService;
+    int catalogueSize;
+
+    @Setup(Level.Trial)
+    public void setUp(CatalogueState catalogue) {
+        bookService = catalogue.bean(BookService.class);
+        catalogueSize = catalogue.catalogueSize;
+    }
+
+    @Benchmark
+    public List<Book> findAll() {
+        return bookService.findAll();
+    }
+
+    @Benchmark
+    public BookPage findPage() {
+        return bookService.findPage(ThreadLocalRandom.current().nextInt(catalogueSize), null, 20);
+    }
+
+    @Benchmark
+    public Book findById() {
+        return bookService.findById(1 + ThreadLocalRandom.current().nextInt(catalogueSize));
+    }
+
+    @Benchmark
+    public List<Book> searchByTitle() {
+        return bookService.findBookByName("ook " + ThreadLocalRandom.current().nextInt(catalogueSize));
+    }
+
+    @Benchmark
+    public List<Book> searchByAuthor() {
+        return bookService.findBookByName("Author " + ThreadLocalRandom.current().nextInt(catalogueSize / 20));
+    }
+
+    @Benchmark
+    public List<Book> searchByIsbn() {
+        return bookService.findBookByName(CatalogueState.isbn(ThreadLocalRandom.current().nextInt(catalogueSize)));
+    }
+}
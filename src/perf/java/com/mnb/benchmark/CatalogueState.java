@@ -0,0 +1,89 @@
+package com.mnb.benchmark;
+
+import com.mnb.LibraryProjectWithSpringBootAndThymeleafApplication;
+import com.mnb.service.BookImportService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.StringReader;
+
+/**
+ * Boots the service and JPA layer (no web server) against a fresh embedded H2 database and
+ * seeds it with a synthetic catalogue of {@code catalogueSize} books, one author per 20 books
+ * and one publisher per 200 books. The Spring result cache is switched off so the benchmarks
+ * measure the query paths rather than cache hits.
+ */
+@State(Scope.Benchmark)
+public class CatalogueState {
+
+    static final int SEED_CHUNK = 10_000;
+
+    @Param("10000")
+    public int catalogueSize;
+
+    public ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void boot() {
+        // JMH runs the benchmark from a main method, which devtools would take as a reason to restart
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(LibraryProjectWithSpringBootAndThymeleafApplication.class)
+                .web(WebApplicationType.NONE)
+                // passed as arguments so they win over application.properties
+                .run("--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--spring.devtools.add-properties=false",
+                        "--spring.cache.type=none",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false");
+        seed(context, catalogueSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public static void seed(ConfigurableApplicationContext context, int books) {
+        BookImportService importService = context.getBean(BookImportService.class);
+        for (int from = 0; from < books; from += SEED_CHUNK) {
+            importService.importCsv(new StringReader(csv(from, Math.min(books, from + SEED_CHUNK))));
+        }
+    }
+
+    /**
+     * Synthetic rows [from, to) in the import CSV format.
+     */
+    public static String csv(int from, int to) {
+        StringBuilder csv = new StringBuilder("bookName,serialName,author,publisher,description,isbn\n");
+        for (int i = from; i < to; i++) {
+            csv.append("Book ").append(i).append(',')
+                    .append("Series ").append(i / 10).append(',')
+                    .append("Author ").append(i / 20).append(',')
+                    .append("Publisher ").append(i / 200).append(',')
+                    .append("Synthetic book number ").append(i).append(',')
+                    .append(isbn(i)).append('\n');
+        }
+        return csv.toString();
+    }
+
+    // a valid ISBN-13 in the 979 range, unique per book number
+    public static String isbn(int number) {
+        String digits = "979" + String.format("%09d", number);
+        int sum = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            sum += (digits.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return digits + (10 - sum % 10) % 10;
+    }
+}
@@ -0,0 +1,89 @@
+package com.mnb.benchmark;
+
+import com.mnb.dto.ImportResult;
+import com.mnb.entity.Author;
+import com.mnb.entity.Book;
+import com.mnb.service.AuthorService;
+import com.mnb.service.BookImportService;
+import com.mnb.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.StringReader;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write paths: saving one book through {@link BookService#save}, attaching a book to an
+ * author through {@link AuthorService#addBook} and the chunked bulk import, reported per row.
+ * Every operation inserts new rows, so the table keeps growing during the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteBenchmark {
+
+    static final int IMPORT_ROWS = 1000;
+
+    BookService bookService;
+    AuthorService authorService;
+    BookImportService importService;
+    TransactionTemplate transactionTemplate;
+    int authors;
+    // new books are numbered after the seeded catalogue so the ISBNs stay unique
+    int nextNumber;
+
+    @Setup(Level.Trial)
+    public void setUp(CatalogueState catalogue) {
+        bookService = catalogue.bean(BookService.class);
+        authorService = catalogue.bean(AuthorService.class);
+        importService = catalogue.bean(BookImportService.class);
+        transactionTemplate = new TransactionTemplate(catalogue.bean(PlatformTransactionManager.class));
+        authors = catalogue.catalogueSize / 20;
+        nextNumber = catalogue.catalogueSize;
+    }
+
+    @Benchmark
+    public Book save() {
+        Book book = new Book();
+        book.setBookName("Saved book " + nextNumber);
+        book.setIsbn(CatalogueState.isbn(nextNumber++));
+        bookService.save(book);
+        return book;
+    }
+
+    @Benchmark
+    public Book addBook() {
+        Author author = new Author();
+        author.setId(1 + ThreadLocalRandom.current().nextInt(authors));
+        Book book = new Book();
+        book.setBookName("Added book " + nextNumber++);
+        // the book is persisted through the cascade on Author.booksList when the transaction commits
+        transactionTemplate.executeWithoutResult(status -> authorService.addBook(author, book));
+        return book;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IMPORT_ROWS)
+    public ImportResult importRows() {
+        ImportResult result = importService.importCsv(
+                new StringReader(CatalogueState.csv(nextNumber, nextNumber + IMPORT_ROWS)));
+        nextNumber += IMPORT_ROWS;
+        return result;
+    }
+}
@@ -0,0 +1,359 @@
+package com.mnb.loadtest;
+
+import com.mnb.LibraryProjectWithSpringBootAndThymeleafApplication;
+import com.mnb.benchmark.CatalogueState;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop load test for the Thymeleaf endpoints.
+ * <p>
+ * Without {@code url=} the application is started in-process on a random port against the
+ * embedded H2 database and seeded with {@code catalogueSize} synthetic books. Every virtual
+ * user logs in through the form login (alternating between the configured users), then
+ * sends requests back to back for the warmup and measurement periods. Latency percentiles
+ * and throughput are reported per endpoint for the measurement period only.
+ * <p>
+ * With {@code ramp=16,64,256,1024} the test runs once per concurrency level instead and
+ * reports the highest level whose p99 stays within {@code sloMs} without errors; together with
+ * {@code mix=search} and {@code virtualThreads=true|false} (in-process server only) this
+ * compares how many concurrent search users each thread mode sustains.
+ * <p>
+ * Arguments are {@code key=value} pairs, see {@link #DEFAULTS}:
+ * {@code mvn -Pperf test-compile exec:exec@loadtest -Dload.args="concurrency=32 duration=60"}
+ */
+public class LoadTest {
+
+    static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("url", "");
+        DEFAULTS.put("catalogueSize", "10000");
+        DEFAULTS.put("concurrency", "16");
+        DEFAULTS.put("warmup", "10");
+        DEFAULTS.put("duration", "30");
+        // share of the requests that add a book (form + POST /books/save)
+        DEFAULTS.put("writeRatio", "0.05");
+        DEFAULTS.put("users", "bilal:test123,merve:test123");
+        // mixed: the read/write mix below, search: /books/search only
+        DEFAULTS.put("mix", "mixed");
+        DEFAULTS.put("ramp", "");
+        DEFAULTS.put("sloMs", "500");
+        DEFAULTS.put("virtualThreads", "false");
+    }
+
+    static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+    static final Pattern SESSION = Pattern.compile("JSESSIONID=([^;]+)");
+
+    final Map<String, String> options;
+    final String baseUrl;
+    final int catalogueSize;
+    final double writeRatio;
+    final boolean searchOnly;
+    final AtomicInteger nextBook = new AtomicInteger();
+    // one client for all virtual users, the sessions are tracked per user
+    final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    LoadTest(Map<String, String> options, String baseUrl) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+        this.catalogueSize = Integer.parseInt(options.get("catalogueSize"));
+        this.writeRatio = Double.parseDouble(options.get("writeRatio"));
+        this.searchOnly = options.get("mix").equals("search");
+        this.nextBook.set(catalogueSize);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            if (pair.length != 2 || !DEFAULTS.containsKey(pair[0])) {
+                throw new IllegalArgumentException("Unknown argument " + arg + ", expected one of " + DEFAULTS.keySet());
+            }
+            options.put(pair[0], pair[1]);
+        }
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.get("url");
+        if (baseUrl.isEmpty()) {
+            context = start(Integer.parseInt(options.get("catalogueSize")),
+                    Boolean.parseBoolean(options.get("virtualThreads")));
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            System.out.println("Load test against " + baseUrl + " with " + options);
+            new LoadTest(options, baseUrl).run();
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    static ConfigurableApplicationContext start(int catalogueSize, boolean virtualThreads) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LibraryProjectWithSpringBootAndThymeleafApplication.class)
+                .run("--server.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--spring.devtools.add-properties=false",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--spring.threads.virtual.enabled=" + virtualThreads);
+        CatalogueState.seed(context, catalogueSize);
+        return context;
+    }
+
+    void run() throws Exception {
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.get("duration")));
+        if (options.get("ramp").isEmpty()) {
+            runLevel(Integer.parseInt(options.get("concurrency"))).report(duration);
+            return;
+        }
+        double slo = Double.parseDouble(options.get("sloMs"));
+        int sustained = 0;
+        System.out.printf("%9s %9s %9s %7s %9s %9s%n", "users", "requests", "req/s", "errors", "p50 ms", "p99 ms");
+        for (String level : options.get("ramp").split(",")) {
+            int users = Integer.parseInt(level.trim());
+            Recorder recorder = runLevel(users);
+            long[] samples = recorder.allSamples();
+            int errors = recorder.errors.values().stream().mapToInt(Integer::intValue).sum();
+            double p99 = Recorder.millis(samples, 0.99);
+            System.out.printf("%9d %9d %9.1f %7d %9.2f %9.2f%n", users, samples.length,
+                    samples.length / (double) duration.toSeconds(), errors, Recorder.millis(samples, 0.50), p99);
+            if (errors == 0 && p99 <= slo) {
+                sustained = users;
+            }
+        }
+        System.out.println("Highest concurrency with p99 <= " + options.get("sloMs") + " ms and no errors: "
+                + (sustained == 0 ? "none" : sustained) + " users");
+    }
+
+    Recorder runLevel(int concurrency) throws Exception {
+        List<String[]> users = Arrays.stream(options.get("users").split(",")).map(user -> user.split(":", 2)).toList();
+        long warmupEnd = System.nanoTime() + Duration.ofSeconds(Long.parseLong(options.get("warmup"))).toNanos();
+        long end = warmupEnd + Duration.ofSeconds(Long.parseLong(options.get("duration"))).toNanos();
+
+        // the load generator itself runs on virtual threads so that thousands of users stay cheap
+        Recorder total = new Recorder();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Recorder>> futures = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                String[] user = users.get(i % users.size());
+                futures.add(executor.submit(() -> new VirtualUser(user[0], user[1]).run(warmupEnd, end)));
+            }
+            for (Future<Recorder> future : futures) {
+                total.merge(future.get());
+            }
+        }
+        return total;
+    }
+
+    /**
+     * One logged-in session sending requests back to back.
+     */
+    class VirtualUser {
+        final String username;
+        final String password;
+        String session;
+        Recorder recorder = new Recorder();
+
+        VirtualUser(String username, String password) {
+            this.username = username;
+            this.password = password;
+        }
+
+        Recorder run(long warmupEnd, long end) throws Exception {
+            login();
+            boolean warm = false;
+            while (System.nanoTime() < end) {
+                if (!warm && System.nanoTime() >= warmupEnd) {
+                    // drop the warmup samples
+                    recorder = new Recorder();
+                    warm = true;
+                }
+                try {
+                    step();
+                } catch (IOException e) {
+                    // timeouts and refused connections are already recorded as errors, keep going
+                }
+            }
+            return recorder;
+        }
+
+        void login() throws Exception {
+            String token = csrf(send("GET /login", get("/login")).body());
+            HttpResponse<String> response = send("POST /index", post("/index",
+                    Map.of("username", username, "password", password, "_csrf", token)));
+            String location = response.headers().firstValue("Location").orElse("");
+            if (response.statusCode() != 302 || location.contains("error")) {
+                throw new IllegalStateException("Login failed for " + username + ": " + response.statusCode() + " " + location);
+            }
+        }
+
+        void step() throws Exception {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            double dice = random.nextDouble();
+            if (searchOnly) {
+                search(random);
+            } else if (dice < writeRatio) {
+                String token = csrf(send("GET /books/showFormForAdd", get("/books/showFormForAdd")).body());
+                int number = nextBook.getAndIncrement();
+                send("POST /books/save", post("/books/save", Map.of("bookName", "Load test book " + number,
+                        "booksAuthor", "Author " + number / 20, "isbn", CatalogueState.isbn(number), "_csrf", token)));
+            } else if (dice < 0.45) {
+                send("GET /books/list", get("/books/list?after=" + random.nextInt(catalogueSize)));
+            } else if (dice < 0.8) {
+                search(random);
+            } else if (dice < 0.9) {
+                send("GET /author/list", get("/author/list"));
+            } else {
+                send("GET /publisher/list", get("/publisher/list"));
+            }
+        }
+
+        void search(ThreadLocalRandom random) throws Exception {
+            String keyword = random.nextBoolean() ? "Book " + random.nextInt(catalogueSize)
+                    : "Author " + random.nextInt(Math.max(1, catalogueSize / 20));
+            send("GET /books/search", get("/books/search?keyword=" + URLEncoder.encode(keyword, StandardCharsets.UTF_8)));
+        }
+
+        HttpResponse<String> send(String endpoint, HttpRequest.Builder request) throws Exception {
+            if (session != null) {
+                request.header("Cookie", "JSESSIONID=" + session);
+            }
+            long start = System.nanoTime();
+            HttpResponse<String> response;
+            try {
+                response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            } catch (Exception e) {
+                recorder.record(endpoint, System.nanoTime() - start, false);
+                throw e;
+            }
+            recorder.record(endpoint, System.nanoTime() - start, response.statusCode() < 400);
+            // the session id changes on login
+            for (String cookie : response.headers().allValues("Set-Cookie")) {
+                Matcher matcher = SESSION.matcher(cookie);
+                if (matcher.find()) {
+                    session = matcher.group(1);
+                }
+            }
+            return response;
+        }
+
+        HttpRequest.Builder get(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET();
+        }
+
+        HttpRequest.Builder post(String path, Map<String, String> form) {
+            StringBuilder body = new StringBuilder();
+            form.forEach((name, value) -> body.append(body.isEmpty() ? "" : "&")
+                    .append(URLEncoder.encode(name, StandardCharsets.UTF_8)).append('=')
+                    .append(URLEncoder.encode(value, StandardCharsets.UTF_8)));
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+        }
+    }
+
+    static String csrf(String html) {
+        Matcher matcher = CSRF.matcher(html);
+        if (!matcher.find()) {
+            throw new IllegalStateException("No CSRF token in the page");
+        }
+        return matcher.group(1);
+    }
+
+    /**
+     * Latencies per endpoint, kept by one virtual user and merged at the end.
+     */
+    static class Recorder {
+        final Map<String, long[]> latencies = new HashMap<>();
+        final Map<String, Integer> counts = new HashMap<>();
+        final Map<String, Integer> errors = new HashMap<>();
+
+        void record(String endpoint, long nanos, boolean ok) {
+            int count = counts.merge(endpoint, 1, Integer::sum);
+            long[] samples = latencies.computeIfAbsent(endpoint, e -> new long[1024]);
+            if (count > samples.length) {
+                samples = Arrays.copyOf(samples, samples.length * 2);
+                latencies.put(endpoint, samples);
+            }
+            samples[count - 1] = nanos;
+            if (!ok) {
+                errors.merge(endpoint, 1, Integer::sum);
+            }
+        }
+
+        void merge(Recorder other) {
+            other.counts.forEach((endpoint, count) -> {
+                long[] samples = other.latencies.get(endpoint);
+                for (int i = 0; i < count; i++) {
+                    record(endpoint, samples[i], true);
+                }
+            });
+            other.errors.forEach((endpoint, count) -> errors.merge(endpoint, count, Integer::sum));
+        }
+
+        void report(Duration duration) {
+            System.out.printf("%-28s %9s %9s %7s %9s %9s %9s %9s%n",
+                    "endpoint", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms");
+            int total = 0;
+            for (Map.Entry<String, Integer> entry : new TreeMap<>(counts).entrySet()) {
+                int count = entry.getValue();
+                long[] samples = Arrays.copyOf(latencies.get(entry.getKey()), count);
+                Arrays.sort(samples);
+                System.out.printf("%-28s %9d %9.1f %7d %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(), count,
+                        count / (double) duration.toSeconds(), errors.getOrDefault(entry.getKey(), 0),
+                        millis(samples, 0.50), millis(samples, 0.90), millis(samples, 0.99), millis(samples, 1.0));
+                total += count;
+            }
+            System.out.printf("%-28s %9d %9.1f%n", "total", total, total / (double) duration.toSeconds());
+        }
+
+        long[] allSamples() {
+            long[] all = new long[counts.values().stream().mapToInt(Integer::intValue).sum()];
+            int offset = 0;
+            for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                System.arraycopy(latencies.get(entry.getKey()), 0, all, offset, entry.getValue());
+                offset += entry.getValue();
+            }
+            Arrays.sort(all);
+            return all;
+        }
+
+        static double millis(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
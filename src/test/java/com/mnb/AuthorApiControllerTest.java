@@ -0,0 +1,71 @@
+package com.mnb.api;
+
+import com.mnb.dto.AuthorSummary;
+import com.mnb.dto.CursorPage;
+import com.mnb.service.AuthorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthorApiControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private AuthorService authorService;
+
+    @InjectMocks
+    private AuthorApiController authorApiController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(authorApiController)
+                .setControllerAdvice(new ApiExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void list_ShouldReturnCursorPage() throws Exception {
+        when(authorService.findPage(null, 50)).thenReturn(
+                new CursorPage<>(List.of(new AuthorSummary(1, "Frank Herbert", "Dune")), 1, 50));
+
+        mockMvc.perform(get("/api/v1/authors").param("fields", "authorName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].authorName", is("Frank Herbert")))
+                .andExpect(jsonPath("$.items[0].description").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor", is(1)))
+                .andExpect(jsonPath("$.size", is(50)));
+    }
+
+    @Test
+    void get_ShouldReturn404_WhenAuthorDoesNotExist() throws Exception {
+        when(authorService.getAuthor(99)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v1/authors/99"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail", is("Author not found with ID 99")));
+    }
+
+    @Test
+    void search_ShouldReturnMatchingAuthors() throws Exception {
+        when(authorService.search("herb")).thenReturn(List.of(new AuthorSummary(1, "Frank Herbert", null)));
+
+        mockMvc.perform(get("/api/v1/authors/search").param("q", "herb"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1)));
+    }
+}
@@ -1,7 +1,13 @@
 package com.mnb;
 
+import com.mnb.cache.ConditionalGet;
+import com.mnb.cache.PageFragmentCache;
 import com.mnb.controller.AuthorController;
+import com.mnb.dto.AuthorBookCount;
+import com.mnb.dto.BookPage;
+import com.mnb.dto.BookSummary;
 import com.mnb.entity.Author;
+import com.mnb.entity.Book;
 import com.mnb.service.AuthorService;
 import com.mnb.service.BookService;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,15 +16,20 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +43,12 @@ class AuthorControllerTest {
     @Mock
     private BookService bookService;
 
+    @Mock
+    private PageFragmentCache fragmentCache;
+
+    @Mock
+    private ConditionalGet conditionalGet;
+
     @InjectMocks
     private AuthorController authorController;
 
@@ -42,25 +59,72 @@ class AuthorControllerTest {
 
     @Test
     void listAuthors_ShouldReturnViewWithAuthors() throws Exception {
-        Author author1 = new Author();
-        author1.setId(1);
-        Author author2 = new Author();
-        author2.setId(2);
-        List<Author> authors = Arrays.asList(author1, author2);
-
-        when(authorService.findAll()).thenReturn(authors);
+        AuthorBookCount author1 = new AuthorBookCount(1, "J.K. Rowling", null, 7, "Harry Potter and the Deathly Hallows");
+        AuthorBookCount author2 = new AuthorBookCount(2, "George Orwell", null, 0, null);
+        List<AuthorBookCount> authors = Arrays.asList(author1, author2);
+
+        when(authorService.findAllWithBookCounts()).thenReturn(authors);
+        Map<String, Object> tableModel = new HashMap<>();
+        when(fragmentCache.render(eq("fragments/author-table"), eq(List.of(Author.class, Book.class)), eq(""), any(),
+                any(), any()))
+                .thenAnswer(invocation -> {
+                    tableModel.putAll(invocation.<Supplier<Map<String, Object>>>getArgument(3).get());
+                    return "<table></table>";
+                });
 
         mockMvc.perform(get("/author/list"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("list-authors"))
-                .andExpect(model().attribute("authors", hasSize(2)))
-                .andExpect(model().attribute("authors", hasItem(
-                        allOf(
-                                hasProperty("id", is(1))
-                        )
-                )));
+                .andExpect(model().attribute("authorTable", "<table></table>"));
+
+        assertThat(tableModel, hasEntry(is("authors"), is(authors)));
+        verify(authorService, times(1)).findAllWithBookCounts();
+        verify(authorService, never()).findAll();
+    }
+
+    @Test
+    void listAuthors_ShouldNotQueryAuthors_WhenTableIsCached() throws Exception {
+        when(fragmentCache.render(eq("fragments/author-table"), eq(List.of(Author.class, Book.class)), eq(""), any(),
+                any(), any()))
+                .thenReturn("<table></table>");
+
+        mockMvc.perform(get("/author/list"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("authorTable", "<table></table>"));
+
+        verify(authorService, never()).findAllWithBookCounts();
+    }
+
+    @Test
+    void showDetail_ShouldShowAuthorWithOnePageOfBooks() throws Exception {
+        Author author = new Author();
+        author.setId(1);
+        author.setAuthorName("J.K. Rowling");
+        BookPage page = new BookPage(List.of(new BookSummary(11, "Harry Potter", null, null, null, null, null, null)),
+                null, 11, 100);
+        when(authorService.findById(1)).thenReturn(author);
+        when(bookService.findPageByAuthor(1, 10, null, 100)).thenReturn(page);
+
+        mockMvc.perform(get("/author/detail").param("authorId", "1").param("after", "10").param("size", "5000"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("author-detail"))
+                .andExpect(model().attribute("author", author))
+                .andExpect(model().attribute("books", page.getBooks()))
+                .andExpect(model().attribute("page", page));
+
+        // the books come from the keyset query, never from the author's collection
+        verify(bookService, never()).findAll();
+    }
+
+    @Test
+    void showDetail_ShouldHandleNotFound() throws Exception {
+        when(authorService.findById(99)).thenThrow(new RuntimeException("Author not found"));
+
+        mockMvc.perform(get("/author/detail").param("authorId", "99"))
+                .andExpect(view().name("error"))
+                .andExpect(model().attribute("errorMessage", is("Author not found")));
 
-        verify(authorService, times(1)).findAll();
+        verifyNoInteractions(bookService);
     }
 
     @Test
@@ -108,6 +172,20 @@ class AuthorControllerTest {
         verify(authorService, times(1)).save(author);
     }
 
+    @Test
+    void saveAuthor_ShouldReturnForm_OnConcurrentEdit() throws Exception {
+        Author author = new Author();
+        author.setId(1);
+        author.setVersion(2);
+        doThrow(new ObjectOptimisticLockingFailureException(Author.class, 1)).when(authorService).save(author);
+
+        mockMvc.perform(post("/author/save")
+                        .flashAttr("authors", author))
+                .andExpect(status().isOk())
+                .andExpect(view().name("author-form"))
+                .andExpect(model().attribute("errorMessage", containsString("changed or deleted by someone else")));
+    }
+
     @Test
     void delete_ShouldRedirectToList() throws Exception {
         mockMvc.perform(get("/author/delete").param("authorId", "1"))
@@ -131,4 +209,4 @@ class AuthorControllerTest {
 
         verify(authorService, times(1)).findById(99);
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.mnb;
+
+import com.mnb.dto.AuthorBookCount;
+import com.mnb.entity.Author;
+import com.mnb.entity.Book;
+import com.mnb.repository.AuthorRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class AuthorRepositoryTest {
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void findAllWithBookCounts_ShouldUseOneStatement_RegardlessOfAuthorCount(int authorCount) {
+        // author i has i books: the first one none at all, it must still be listed
+        for (int i = 0; i < authorCount; i++) {
+            Author author = new Author();
+            author.setAuthorName("Author " + i);
+            entityManager.persist(author);
+            for (int j = 0; j < i; j++) {
+                Book book = new Book();
+                book.setBookName("Book " + i + "." + j);
+                book.setAuthor(author);
+                entityManager.persist(book);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<AuthorBookCount> authors = authorRepository.findAllWithBookCounts();
+
+        assertEquals(authorCount, authors.size());
+        assertEquals(0, authors.get(0).getBookCount());
+        assertNull(authors.get(0).getLatestTitle());
+        AuthorBookCount last = authors.get(authorCount - 1);
+        assertEquals(authorCount - 1, last.getBookCount());
+        if (authorCount > 1) {
+            assertEquals("Book " + (authorCount - 1) + "." + (authorCount - 2), last.getLatestTitle());
+        }
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+}
@@ -1,19 +1,31 @@
 package com.mnb;
 
+import com.mnb.dto.AuthorBookCount;
+import com.mnb.dto.AuthorSummary;
+import com.mnb.dto.CursorPage;
 import com.mnb.entity.Author;
 import com.mnb.entity.Book;
+import com.mnb.event.CatalogueChangedEvent;
+import com.mnb.exception.NotFoundException;
 import com.mnb.repository.AuthorRepository;
+import com.mnb.repository.BookRepository;
 import com.mnb.service.AuthorServiceImpl;
+import com.mnb.snapshot.CatalogueSnapshotStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,6 +36,18 @@ class AuthorServiceImplTest {
     @Mock
     private AuthorRepository authorRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CatalogueSnapshotStore snapshotStore;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private AuthorServiceImpl authorService;
 
@@ -36,6 +60,7 @@ class AuthorServiceImplTest {
         author.setId(1);
         author.setAuthorName("J.K. Rowling");
         author.setDescription("Author of Harry Potter series");
+        author.setVersion(0);
 
         book = new Book();
         book.setId(1);
@@ -56,6 +81,48 @@ class AuthorServiceImplTest {
         verify(authorRepository, times(1)).findAll();
     }
 
+    @Test
+    void findAllSummaries_ShouldReturnProjections() {
+        List<AuthorSummary> expected = List.of(new AuthorSummary(1, "J.K. Rowling", "Author of Harry Potter series"));
+        when(authorRepository.findAllSummaries()).thenReturn(expected);
+
+        List<AuthorSummary> result = authorService.findAllSummaries();
+
+        assertEquals(expected, result);
+        verify(authorRepository, never()).findAll();
+    }
+
+    @Test
+    void findAllWithBookCounts_ShouldUseTheGroupedQuery() {
+        List<AuthorBookCount> expected = List.of(new AuthorBookCount(1, "J.K. Rowling", null, 7, "Harry Potter"));
+        when(authorRepository.findAllWithBookCounts()).thenReturn(expected);
+
+        assertEquals(expected, authorService.findAllWithBookCounts());
+        verify(authorRepository, never()).findAll();
+    }
+
+    @Test
+    void findPage_ShouldReturnNextCursor_WhenMoreRowsExist() {
+        List<AuthorSummary> rows = List.of(new AuthorSummary(4, "A", null), new AuthorSummary(7, "B", null),
+                new AuthorSummary(9, "C", null));
+        when(authorRepository.findSummaryPageAfter(3, Limit.of(3))).thenReturn(rows);
+
+        CursorPage<AuthorSummary> page = authorService.findPage(3, 2);
+
+        assertEquals(rows.subList(0, 2), page.getItems());
+        assertEquals(7, page.getNextCursor());
+    }
+
+    @Test
+    void findPage_ShouldEndWithoutCursor_OnTheLastPage() {
+        when(authorRepository.findSummaryPageAfter(0, Limit.of(3))).thenReturn(List.of(new AuthorSummary(1, "A", null)));
+
+        CursorPage<AuthorSummary> page = authorService.findPage(null, 2);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
     @Test
     void findById_ShouldReturnAuthor_WhenAuthorExists() {
         when(authorRepository.findById(1)).thenReturn(Optional.of(author));
@@ -96,6 +163,65 @@ class AuthorServiceImplTest {
         verify(authorRepository, times(1)).deleteById(1);
     }
 
+    @Test
+    void save_ShouldPublishChangeEvent() {
+        when(authorRepository.updateVersioned(author)).thenReturn(1);
+
+        authorService.save(author);
+
+        verify(eventPublisher, times(1)).publishEvent(CatalogueChangedEvent.saved(Author.class, 1, author));
+    }
+
+    @Test
+    void save_ShouldUpdateExistingAuthorWithOneVersionedStatement() {
+        author.setVersion(4);
+        when(authorRepository.updateVersioned(author)).thenReturn(1);
+
+        authorService.save(author);
+
+        assertEquals(5, author.getVersion());
+        verify(authorRepository, never()).save(any());
+        verify(authorRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    void save_ShouldReportConflict_WhenAuthorChangedSinceRead() {
+        author.setVersion(4);
+        when(authorRepository.updateVersioned(author)).thenReturn(0);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> authorService.save(author));
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void save_ShouldRenameTheAuthorTextOfItsBooks_InTheSameTransaction() {
+        when(authorRepository.updateVersioned(author)).thenReturn(1);
+        when(bookRepository.renameAuthor(1, "J.K. Rowling")).thenReturn(7);
+
+        authorService.save(author);
+
+        verify(transactionManager, times(1)).commit(any());
+        verify(eventPublisher).publishEvent(CatalogueChangedEvent.bulk(Book.class));
+    }
+
+    @Test
+    void save_ShouldRejectAnEditWithoutVersion() {
+        author.setVersion(null);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> authorService.save(author));
+
+        verify(authorRepository, never()).updateVersioned(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void deleteById_ShouldPublishChangeEvent() {
+        authorService.deleteById(1);
+
+        verify(eventPublisher, times(1)).publishEvent(CatalogueChangedEvent.deleted(Author.class, 1));
+    }
+
     @Test
     void addBook_ShouldAddBookToAuthor_WhenAuthorExists() {
         when(authorRepository.findById(1)).thenReturn(Optional.of(author));
@@ -119,6 +245,36 @@ class AuthorServiceImplTest {
         verify(authorRepository, times(1)).findById(99);
     }
 
+    @Test
+    void assignBooks_ShouldUpdateInBatches_AndPublishOneBulkEvent() {
+        when(authorRepository.findById(1)).thenReturn(Optional.of(author));
+        List<Integer> ids = IntStream.rangeClosed(1, 2500).boxed().toList();
+        when(bookRepository.assignAuthor(eq(author), eq("J.K. Rowling"), anyCollection()))
+                .thenAnswer(invocation -> invocation.<List<Integer>>getArgument(2).size());
+
+        int updated = authorService.assignBooks(1, ids);
+
+        assertEquals(2500, updated);
+        verify(authorRepository, times(1)).findById(1);
+        verify(bookRepository).assignAuthor(author, "J.K. Rowling", ids.subList(0, 1000));
+        verify(bookRepository).assignAuthor(author, "J.K. Rowling", ids.subList(1000, 2000));
+        verify(bookRepository).assignAuthor(author, "J.K. Rowling", ids.subList(2000, 2500));
+        verify(transactionManager, times(1)).commit(any());
+        verify(eventPublisher, times(1)).publishEvent(any(CatalogueChangedEvent.class));
+        verify(eventPublisher).publishEvent(CatalogueChangedEvent.bulk(Book.class));
+        verify(bookRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void assignBooks_ShouldRollBack_WhenAuthorDoesNotExist() {
+        when(authorRepository.findById(99)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> authorService.assignBooks(99, List.of(1, 2)));
+
+        verify(transactionManager, times(1)).rollback(any());
+        verifyNoInteractions(bookRepository, eventPublisher);
+    }
+
     @Test
     void getAuthor_ShouldReturnAuthor_WhenAuthorExists() {
         when(authorRepository.findById(1)).thenReturn(Optional.of(author));
@@ -0,0 +1,112 @@
+package com.mnb.api;
+
+import com.mnb.dto.BookPage;
+import com.mnb.dto.BookSummary;
+import com.mnb.entity.Book;
+import com.mnb.exception.NotFoundException;
+import com.mnb.service.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookApiControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private BookService bookService;
+
+    @InjectMocks
+    private BookApiController bookApiController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(bookApiController)
+                .setControllerAdvice(new ApiExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void list_ShouldReturnCursorPageWithSelectedFields() throws Exception {
+        List<BookSummary> books = List.of(summary(11, "Dune"), summary(12, "Emma"));
+        when(bookService.findPage(10, null, 2)).thenReturn(new BookPage(books, 11, 12, 2));
+
+        mockMvc.perform(get("/api/v1/books").param("after", "10").param("size", "2").param("fields", "id,bookName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].bookName", is("Dune")))
+                .andExpect(jsonPath("$.items[0].isbn").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor", is(12)));
+    }
+
+    @Test
+    void list_ShouldReturnAllFieldsAndClampPageSize() throws Exception {
+        when(bookService.findPage(null, null, 500)).thenReturn(new BookPage(List.of(summary(1, "Dune")), null, null, 500));
+
+        mockMvc.perform(get("/api/v1/books").param("size", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].isbn", is("978-0-575-04606-1")))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
+    @Test
+    void list_ShouldRejectUnknownFields() throws Exception {
+        mockMvc.perform(get("/api/v1/books").param("fields", "id,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail", containsString("password")));
+
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    void get_ShouldReturnBook() throws Exception {
+        Book book = new Book();
+        book.setId(1);
+        book.setBookName("Dune");
+        when(bookService.findById(1)).thenReturn(book);
+
+        mockMvc.perform(get("/api/v1/books/1").param("fields", "bookName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bookName", is("Dune")))
+                .andExpect(jsonPath("$.id").doesNotExist());
+    }
+
+    @Test
+    void get_ShouldReturn404_WhenBookDoesNotExist() throws Exception {
+        when(bookService.findById(99)).thenThrow(new NotFoundException(" not found  with ID 99"));
+
+        mockMvc.perform(get("/api/v1/books/99"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail", is("not found  with ID 99")));
+    }
+
+    @Test
+    void search_ShouldReturnMatchingBooks() throws Exception {
+        Book book = new Book();
+        book.setId(1);
+        book.setBookName("Java Programming");
+        when(bookService.findBookByName("java")).thenReturn(List.of(book));
+
+        mockMvc.perform(get("/api/v1/books/search").param("q", "java"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].bookName", is("Java Programming")));
+    }
+
+    private static BookSummary summary(int id, String bookName) {
+        return new BookSummary(id, bookName, null, null, null, null, null, "978-0-575-04606-1");
+    }
+}
@@ -1,21 +1,38 @@
 package com.mnb.controller;
 
+import com.mnb.cache.ConditionalGet;
+import com.mnb.cache.PageFragmentCache;
+import com.mnb.dto.BookPage;
+import com.mnb.dto.BookSummary;
+import com.mnb.dto.ImportResult;
+import com.mnb.entity.Author;
 import com.mnb.entity.Book;
 import com.mnb.exception.NotFoundException;
+import com.mnb.service.BookImportService;
 import com.mnb.service.BookService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.DataException;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +43,15 @@ class BookControllerTest {
     @Mock
     private BookService bookService;
 
+    @Mock
+    private BookImportService bookImportService;
+
+    @Mock
+    private PageFragmentCache fragmentCache;
+
+    @Mock
+    private ConditionalGet conditionalGet;
+
     @InjectMocks
     private BookController bookController;
 
@@ -43,23 +69,53 @@ class BookControllerTest {
 
     @Test
     void listBooks_ShouldReturnViewWithBooks() throws Exception {
-        Book book2 = new Book();
-        book2.setId(2);
-        List<Book> books = Arrays.asList(book, book2);
-        when(bookService.findAll()).thenReturn(books);
+        List<BookSummary> books = Arrays.asList(summary(1, "Effective Java"), summary(2, "Clean Code"));
+        when(bookService.findPage(null, null, 20)).thenReturn(new BookPage(books, null, null, 20));
+        Map<String, Object> tableModel = renderTable("after=null&before=null&size=20");
 
         mockMvc.perform(get("/books/list"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("list-books"))
-                .andExpect(model().attribute("books", hasSize(2)))
-                .andExpect(model().attribute("books", hasItem(
-                        allOf(
-                                hasProperty("id", is(1)),
-                                hasProperty("bookName", is("Effective Java"))
-                        )
-                )));
+                .andExpect(model().attribute("bookTable", "<table></table>"));
+
+        assertThat(tableModel, hasEntry(is("books"), is(books)));
+        verify(bookService, times(1)).findPage(null, null, 20);
+    }
+
+    @Test
+    void listBooks_ShouldPassCursorAndClampPageSize() throws Exception {
+        BookPage page = new BookPage(List.of(summary(11, "Effective Java")), 11, null, 100);
+        when(bookService.findPage(10, null, 100)).thenReturn(page);
+        Map<String, Object> tableModel = renderTable("after=10&before=null&size=100");
+
+        mockMvc.perform(get("/books/list").param("after", "10").param("size", "5000"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("list-books"));
+
+        assertThat(tableModel, hasEntry(is("page"), is(page)));
+        verify(bookService, times(1)).findPage(10, null, 100);
+    }
+
+    @Test
+    void listBooks_ShouldNotQueryBooks_WhenTableIsCached() throws Exception {
+        when(fragmentCache.render(eq("fragments/book-table"), eq(Book.class), anyString(), any(), any(), any()))
+                .thenReturn("<table></table>");
+
+        mockMvc.perform(get("/books/list"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("bookTable", "<table></table>"));
 
-        verify(bookService, times(1)).findAll();
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    void listBooks_ShouldAnswerNotModified_BeforeQueryingBooks() throws Exception {
+        when(conditionalGet.checkNotModified(any(), eq(Book.class))).thenReturn(true);
+
+        mockMvc.perform(get("/books/list"))
+                .andExpect(model().attributeDoesNotExist("bookTable"));
+
+        verifyNoInteractions(bookService, fragmentCache);
     }
 
     @Test
@@ -112,6 +168,67 @@ class BookControllerTest {
         verify(bookService, times(1)).save(book);
     }
 
+    @Test
+    void saveBook_ShouldReturnForm_WhenIsbnAlreadyExists() throws Exception {
+        doThrow(new DataIntegrityViolationException("unique", new ConstraintViolationException("unique",
+                new SQLException(), "PUBLIC.UK_BOOK_ISBN_INDEX_1"))).when(bookService).save(book);
+
+        mockMvc.perform(post("/books/save")
+                        .flashAttr("books", book))
+                .andExpect(status().isOk())
+                .andExpect(view().name("book-form"))
+                .andExpect(model().attribute("errorMessage", containsString("978-0134685991")));
+    }
+
+    @Test
+    void saveBook_ShouldRenderANewBookWithoutTheRolledBackIdAndVersion() throws Exception {
+        Book newBook = new Book();
+        newBook.setBookName("Dune");
+        newBook.setBooksAuthor("Frank Herbert");
+        newBook.setIsbn("9780441013593");
+        doAnswer(invocation -> {
+            // what the failed insert leaves behind: a sequence id, the first version and a resolved author
+            Author author = new Author();
+            author.setId(7);
+            newBook.setId(51);
+            newBook.setVersion(0);
+            newBook.setAuthor(author);
+            throw new DataIntegrityViolationException("unique", new ConstraintViolationException("unique",
+                    new SQLException(), "PUBLIC.UK_BOOK_ISBN_INDEX_1"));
+        }).when(bookService).save(newBook);
+
+        mockMvc.perform(post("/books/save")
+                        .flashAttr("books", newBook))
+                .andExpect(status().isOk())
+                .andExpect(view().name("book-form"))
+                .andExpect(model().attribute("books", allOf(hasProperty("id", nullValue()),
+                        hasProperty("version", nullValue()), hasProperty("author", nullValue()))));
+    }
+
+    @Test
+    void saveBook_ShouldNotBlameTheIsbn_ForOtherViolations() throws Exception {
+        doThrow(new DataIntegrityViolationException("value too long", new DataException("value too long",
+                new SQLException()))).when(bookService).save(book);
+
+        mockMvc.perform(post("/books/save")
+                        .flashAttr("books", book))
+                .andExpect(status().isOk())
+                .andExpect(view().name("book-form"))
+                .andExpect(model().attribute("errorMessage", not(containsString("ISBN"))))
+                .andExpect(model().attribute("errorMessage", containsString("could not be saved")));
+    }
+
+    @Test
+    void saveBook_ShouldReturnForm_OnConcurrentEdit() throws Exception {
+        doThrow(new ObjectOptimisticLockingFailureException(Book.class, 1)).when(bookService).save(book);
+
+        mockMvc.perform(post("/books/save")
+                        .flashAttr("books", book))
+                .andExpect(status().isOk())
+                .andExpect(view().name("book-form"))
+                .andExpect(model().attribute("errorMessage", containsString("changed or deleted by someone else")));
+    }
+
     @Test
     void delete_ShouldRedirectToList() throws Exception {
         mockMvc.perform(get("/books/delete").param("bookId", "1"))
@@ -121,6 +238,30 @@ class BookControllerTest {
         verify(bookService, times(1)).deleteById(1);
     }
 
+    @Test
+    void importBooks_ShouldImportCsvAndReportThroughput() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "books.csv", "text/csv",
+                "bookName,author\nDune,Frank Herbert\n".getBytes());
+        when(bookImportService.importCsv(any())).thenReturn(new ImportResult(1, 2));
+
+        mockMvc.perform(multipart("/books/import").file(file))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("/books/list"))
+                .andExpect(flash().attribute("importMessage", "Imported 1 books in 2 ms (500 rows/s)"));
+
+        verify(bookImportService, never()).importJson(any());
+    }
+
+    @Test
+    void importBooks_ShouldReportFailures() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "books.json", "application/json", "[{".getBytes());
+        when(bookImportService.importJson(any())).thenThrow(new IllegalArgumentException("Unexpected end of input"));
+
+        mockMvc.perform(multipart("/books/import").file(file))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(flash().attribute("errorMessage", "Import failed: Unexpected end of input"));
+    }
+
     @Test
     void search_ShouldReturnMatchingBooks() throws Exception {
         String keyword = "Java";
@@ -153,4 +294,32 @@ class BookControllerTest {
 
         verify(bookService, times(1)).findBookByName(keyword);
     }
-}
\ No newline at end of file
+
+    @Test
+    void search_ShouldFilterByAuthorAndPublisher_ThroughTheService() throws Exception {
+        when(bookService.search("", "Frank Herbert", null)).thenReturn(List.of(book));
+
+        mockMvc.perform(get("/books/search").param("keyword", "").param("author", "Frank Herbert"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("list-books"))
+                .andExpect(model().attribute("books", hasSize(1)))
+                .andExpect(model().attribute("author", "Frank Herbert"));
+
+        verify(bookService, never()).findBookByName(anyString());
+    }
+
+    // runs the model supplier like a cache miss would and hands back the model the fragment got
+    private Map<String, Object> renderTable(String query) {
+        Map<String, Object> tableModel = new HashMap<>();
+        when(fragmentCache.render(eq("fragments/book-table"), eq(Book.class), eq(query), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    tableModel.putAll(invocation.<Supplier<Map<String, Object>>>getArgument(3).get());
+                    return "<table></table>";
+                });
+        return tableModel;
+    }
+
+    private static BookSummary summary(int id, String bookName) {
+        return new BookSummary(id, bookName, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,163 @@
+package com.mnb;
+
+import com.mnb.dto.ImportResult;
+import com.mnb.entity.Author;
+import com.mnb.entity.Book;
+import com.mnb.event.BulkWriteEvent;
+import com.mnb.event.CatalogueChangedEvent;
+import com.mnb.exception.ImportFailedException;
+import com.mnb.repository.AuthorRepository;
+import com.mnb.repository.BookRepository;
+import com.mnb.repository.PublisherRepository;
+import com.mnb.service.BookImportService;
+import com.mnb.service.BookImportServiceImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(BookImportServiceImpl.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@RecordApplicationEvents
+class BookImportServiceImplTest {
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private PublisherRepository publisherRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void importCsv_ShouldCreateBooksAndResolveAuthorsByName() {
+        Author existing = new Author();
+        existing.setAuthorName("Terry Pratchett");
+        Integer existingId = entityManager.persistAndGetId(existing, Integer.class);
+        entityManager.flush();
+
+        String csv = """
+                bookName,author,publisher,isbn,description
+                Guards! Guards!,terry pratchett,Gollancz,978-0-575-04606-1,"Night Watch, book one"
+                Good Omens,Neil Gaiman,Gollancz,,"Written with ""Terry Pratchett""\"
+
+                Mort,Terry Pratchett,Corgi,,
+                """;
+
+        ImportResult result = bookImportService.importCsv(new StringReader(csv));
+
+        assertEquals(3, result.getRows());
+        List<Book> books = bookRepository.findAll();
+        assertEquals(3, books.size());
+        Book guards = books.stream().filter(b -> b.getBookName().equals("Guards! Guards!")).findFirst().orElseThrow();
+        assertEquals(existingId, guards.getAuthor().getId());
+        assertEquals("9780575046061", guards.getIsbn());
+        assertEquals("Night Watch, book one", guards.getDescription());
+        Book omens = books.stream().filter(b -> b.getBookName().equals("Good Omens")).findFirst().orElseThrow();
+        assertEquals("Written with \"Terry Pratchett\"", omens.getDescription());
+        assertNull(omens.getIsbn());
+        assertEquals(2, authorRepository.count());
+        assertEquals(2, publisherRepository.count());
+    }
+
+    @Test
+    void importJson_ShouldAcceptArraysAndJsonLines() {
+        String array = """
+                [{"bookName": "Dune", "author": "Frank Herbert", "unknown": 1},
+                 {"bookName": "Children of Dune", "author": "Frank Herbert"}]
+                """;
+        String lines = """
+                {"bookName": "Hyperion", "author": "Dan Simmons"}
+                {"bookName": "Endymion", "author": "Dan Simmons"}
+                """;
+
+        assertEquals(2, bookImportService.importJson(new StringReader(array)).getRows());
+        assertEquals(2, bookImportService.importJson(new StringReader(lines)).getRows());
+
+        assertEquals(4, bookRepository.count());
+        assertEquals(2, authorRepository.count());
+    }
+
+    @Test
+    void importCsv_ShouldWriteInJdbcBatches() {
+        StringBuilder csv = new StringBuilder("bookName,author\n");
+        for (int i = 0; i < 200; i++) {
+            csv.append("Book ").append(i).append(",Author ").append(i % 10).append('\n');
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        ImportResult result = bookImportService.importCsv(new StringReader(csv.toString()));
+
+        assertEquals(200, result.getRows());
+        assertEquals(200, bookRepository.count());
+        // 210 inserts and a handful of sequence calls would be well over 200 statements without batching
+        assertTrue(statistics.getPrepareStatementCount() < 30,
+                "prepared statements: " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void importCsv_ShouldKeepAndAnnounceTheCommittedChunks_WhenALaterChunkFails() {
+        BookImportServiceImpl target = AopTestUtils.getTargetObject(bookImportService);
+        ReflectionTestUtils.setField(target, "chunkSize", 2);
+        String csv = """
+                bookName,author,isbn
+                Dune,Frank Herbert,978-0-441-17271-9
+                Hyperion,Dan Simmons,
+                Dune again,Frank Herbert,978-0-441-17271-9
+                """;
+        try {
+            ImportFailedException failure = assertThrows(ImportFailedException.class,
+                    () -> bookImportService.importCsv(new StringReader(csv)));
+
+            assertEquals(2, failure.getImportedRows());
+            assertTrue(failure.getMessage().contains("2 books were imported"), failure.getMessage());
+            assertEquals(2, bookRepository.count());
+            assertEquals(1, events.stream(CatalogueChangedEvent.class)
+                    .filter(e -> e.concerns(Book.class) && e.getChange() == CatalogueChangedEvent.Change.BULK)
+                    .count());
+            assertEquals(1, events.stream(CatalogueChangedEvent.class)
+                    .filter(e -> e.concerns(Author.class))
+                    .count());
+            assertEquals(List.of(BulkWriteEvent.started(), BulkWriteEvent.finished()),
+                    events.stream(BulkWriteEvent.class).toList());
+        } finally {
+            ReflectionTestUtils.setField(target, "chunkSize", 1000);
+            bookRepository.deleteAll();
+            authorRepository.deleteAll();
+            publisherRepository.deleteAll();
+        }
+    }
+}
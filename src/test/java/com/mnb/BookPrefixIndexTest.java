@@ -0,0 +1,121 @@
+package com.mnb;
+
+import com.mnb.dto.BookSuggestion;
+import com.mnb.dto.BookSummary;
+import com.mnb.entity.Book;
+import com.mnb.event.CatalogueChangedEvent;
+import com.mnb.repository.BookRepository;
+import com.mnb.search.BookPrefixIndex;
+import com.mnb.snapshot.CatalogueSnapshotStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookPrefixIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private CatalogueSnapshotStore snapshotStore;
+
+    private BookPrefixIndex prefixIndex;
+
+    @BeforeEach
+    void setUp() {
+        prefixIndex = new BookPrefixIndex(bookRepository, snapshotStore);
+        when(bookRepository.findSummaryPageAfter(0, Limit.of(1000))).thenReturn(List.of(
+                summary(1, "The Lord of the Rings", "9780544003415", "J.R.R. Tolkien"),
+                summary(2, "Rings of Saturn", "9780811214131", "W.G. Sebald"),
+                summary(3, "Effective Java", "9780134685991", "Joshua Bloch"),
+                summary(4, "The Hobbit", "9780547928227", "J.R.R. Tolkien")));
+        prefixIndex.rebuild();
+    }
+
+    @Test
+    void suggest_ShouldMatchWordStartsOfNameAndAuthor() {
+        // the closest match first: "rings" (end of The Lord of the Rings) sorts before "rings of saturn"
+        assertEquals(List.of(1, 2), ids("rin"));
+        assertEquals(List.of(1, 4), ids("TOLK"));
+        assertEquals(List.of(3), ids("effective j"));
+    }
+
+    @Test
+    void suggest_ShouldNotMatchInsideWords() {
+        assertTrue(ids("ings").isEmpty());
+    }
+
+    @Test
+    void suggest_ShouldMatchIsbnPrefixWithOrWithoutHyphens() {
+        assertEquals(List.of(3), ids("978013"));
+        assertEquals(List.of(3), ids("978-0-13"));
+    }
+
+    @Test
+    void suggest_ShouldStopAtTheLimit() {
+        assertEquals(2, prefixIndex.suggest("the", 2).size());
+        assertEquals(List.of(4, 1), ids("the"));
+    }
+
+    @Test
+    void suggest_ShouldReturnEmptyList_ForBlankOrUnknownPrefixes() {
+        assertTrue(prefixIndex.suggest(null, 10).isEmpty());
+        assertTrue(prefixIndex.suggest("  ", 10).isEmpty());
+        assertTrue(ids("python").isEmpty());
+    }
+
+    @Test
+    void rebuild_ShouldKeepServingThePreviousIndex_UntilTheNewOneIsComplete() {
+        List<List<Integer>> seenDuringRebuild = new ArrayList<>();
+        when(bookRepository.findSummaryPageAfter(0, Limit.of(1000))).thenAnswer(invocation -> {
+            seenDuringRebuild.add(ids("rin"));
+            return List.of(summary(2, "Rings of Saturn", "9780811214131", "W.G. Sebald"));
+        });
+
+        prefixIndex.onCatalogueChanged(CatalogueChangedEvent.bulk(Book.class));
+
+        assertEquals(List.of(List.of(1, 2)), seenDuringRebuild);
+        assertEquals(List.of(2), ids("rin"));
+        assertEquals(1, prefixIndex.size());
+    }
+
+    @Test
+    void onCatalogueChanged_ShouldReindexSavedBook() {
+        Book renamed = new Book();
+        renamed.setId(3);
+        renamed.setBookName("Java Concurrency in Practice");
+        renamed.setBooksAuthor("Brian Goetz");
+
+        prefixIndex.onCatalogueChanged(CatalogueChangedEvent.saved(Book.class, 3, renamed));
+
+        assertTrue(ids("effective").isEmpty());
+        assertTrue(ids("bloch").isEmpty());
+        assertEquals(List.of(3), ids("conc"));
+    }
+
+    @Test
+    void onCatalogueChanged_ShouldDropDeletedBook() {
+        prefixIndex.onCatalogueChanged(CatalogueChangedEvent.deleted(Book.class, 1));
+
+        assertEquals(List.of(4), ids("tolkien"));
+        assertEquals(3, prefixIndex.size());
+    }
+
+    private List<Integer> ids(String prefix) {
+        return prefixIndex.suggest(prefix, 10).stream().map(BookSuggestion::getId).toList();
+    }
+
+    private static BookSummary summary(int id, String name, String isbn, String author) {
+        return new BookSummary(id, name, null, null, author, null, null, isbn);
+    }
+}
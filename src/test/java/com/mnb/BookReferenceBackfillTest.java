@@ -0,0 +1,87 @@
+package com.mnb;
+
+import com.mnb.entity.Author;
+import com.mnb.entity.Book;
+import com.mnb.entity.Publisher;
+import com.mnb.repository.AuthorRepository;
+import com.mnb.repository.BookRepository;
+import com.mnb.repository.PublisherRepository;
+import com.mnb.service.BookReferenceBackfill;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the backfill commits batch by batch, so the test does not run in a transaction of its own
+@DataJpaTest(properties = {"library.backfill.enabled=false", "library.backfill.batch-size=3"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(BookReferenceBackfill.class)
+class BookReferenceBackfillTest {
+
+    @Autowired
+    private BookReferenceBackfill backfill;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private PublisherRepository publisherRepository;
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAllInBatch();
+        authorRepository.deleteAllInBatch();
+        publisherRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void run_ShouldLinkBooksAcrossBatches_ReusingAndCreatingRows() {
+        Author existing = new Author();
+        existing.setAuthorName("Frank Herbert");
+        authorRepository.save(existing);
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Book book = new Book();
+            book.setBookName("Book " + i);
+            book.setBooksAuthor(i % 2 == 0 ? "frank herbert" : "Ursula K. Le Guin");
+            book.setBooksPublisher(i == 0 ? null : "Ace Books");
+            books.add(book);
+        }
+        bookRepository.saveAll(books);
+
+        assertEquals(7, backfill.run());
+
+        List<Book> linked = bookRepository.findAll();
+        assertTrue(linked.stream().allMatch(book -> book.getAuthor() != null));
+        assertEquals(4, linked.stream().filter(book -> existing.getId().equals(book.getAuthor().getId())).count());
+        assertEquals(2, authorRepository.count());
+        assertEquals(1, publisherRepository.count());
+        assertEquals(6, linked.stream().filter(book -> book.getPublisher() != null).count());
+        assertEquals(0, backfill.run());
+    }
+
+    @Test
+    void run_ShouldLeaveLinkedBooksAlone() {
+        Publisher publisher = new Publisher();
+        publisher.setPublisherName("Ace Books");
+        Book book = new Book();
+        book.setBookName("Dune");
+        book.setBooksPublisher("Chilton Books");
+        book.setPublisher(publisher);
+        bookRepository.save(book);
+
+        assertEquals(0, backfill.run());
+        assertEquals("Ace Books", bookRepository.findAll().get(0).getPublisher().getPublisherName());
+    }
+}
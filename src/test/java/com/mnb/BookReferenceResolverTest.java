@@ -0,0 +1,122 @@
+package com.mnb;
+
+import com.mnb.entity.Author;
+import com.mnb.entity.Book;
+import com.mnb.entity.Publisher;
+import com.mnb.repository.AuthorRepository;
+import com.mnb.repository.PublisherRepository;
+import com.mnb.service.BookReferenceResolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookReferenceResolverTest {
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    @Mock
+    private PublisherRepository publisherRepository;
+
+    @InjectMocks
+    private BookReferenceResolver resolver;
+
+    @Test
+    void resolve_ShouldLinkExistingRows_IgnoringCase() {
+        Author author = author(3, "Frank Herbert");
+        Publisher publisher = publisher(4, "Chilton Books");
+        when(authorRepository.findFirstByAuthorNameIgnoreCaseOrderByIdAsc("frank herbert")).thenReturn(Optional.of(author));
+        when(publisherRepository.findFirstByPublisherNameIgnoreCaseOrderByIdAsc("Chilton Books")).thenReturn(Optional.of(publisher));
+        Book book = book(" frank herbert ", "Chilton Books");
+
+        resolver.resolve(book);
+
+        assertSame(author, book.getAuthor());
+        assertSame(publisher, book.getPublisher());
+    }
+
+    @Test
+    void resolve_ShouldAttachNewRow_WhenNameIsUnknown() {
+        when(authorRepository.findFirstByAuthorNameIgnoreCaseOrderByIdAsc("Octavia E. Butler")).thenReturn(Optional.empty());
+        Book book = book("Octavia E. Butler ", null);
+
+        resolver.resolve(book);
+
+        assertNull(book.getAuthor().getId());
+        assertEquals("Octavia E. Butler", book.getAuthor().getAuthorName());
+        assertNull(book.getPublisher());
+        verifyNoInteractions(publisherRepository);
+    }
+
+    @Test
+    void resolve_ShouldKeepTheLink_WhenTheNameStillMatches() {
+        Book book = book("FRANK HERBERT", null);
+        book.setAuthor(author(3, "Frank Herbert"));
+
+        resolver.resolve(book);
+
+        assertEquals(3, book.getAuthor().getId());
+        verifyNoInteractions(authorRepository);
+    }
+
+    @Test
+    void resolve_ShouldFillBlankName_FromTheLinkedRow() {
+        Book book = book("", null);
+        book.setPublisher(publisher(4, "Chilton Books"));
+
+        resolver.resolve(book);
+
+        assertNull(book.getAuthor());
+        assertEquals("Chilton Books", book.getBooksPublisher());
+        verifyNoInteractions(authorRepository, publisherRepository);
+    }
+
+    @Test
+    void resolve_ShouldReadPostedRowsById_AndKeepThemWhenTheNameIsUnchanged() {
+        when(authorRepository.findById(3)).thenReturn(Optional.of(author(3, "Frank Herbert")));
+        Book book = book("Frank Herbert", "");
+        book.setAuthor(new Author());
+        book.getAuthor().setId(3);
+        book.setPublisher(new Publisher());
+        book.getPublisher().setId(4);
+
+        resolver.resolve(book);
+
+        assertEquals("Frank Herbert", book.getAuthor().getAuthorName());
+        // the name was cleared on the form, so the posted publisher goes too
+        assertNull(book.getPublisher());
+        assertNull(book.getBooksPublisher());
+        verify(authorRepository, never()).findFirstByAuthorNameIgnoreCaseOrderByIdAsc(anyString());
+        verifyNoInteractions(publisherRepository);
+    }
+
+    private static Book book(String author, String publisher) {
+        Book book = new Book();
+        book.setBookName("Dune");
+        book.setBooksAuthor(author);
+        book.setBooksPublisher(publisher);
+        return book;
+    }
+
+    private static Author author(int id, String name) {
+        Author author = new Author();
+        author.setId(id);
+        author.setAuthorName(name);
+        return author;
+    }
+
+    private static Publisher publisher(int id, String name) {
+        Publisher publisher = new Publisher();
+        publisher.setId(id);
+        publisher.setPublisherName(name);
+        return publisher;
+    }
+}
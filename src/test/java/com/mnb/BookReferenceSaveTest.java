@@ -0,0 +1,109 @@
+package com.mnb;
+
+import com.mnb.entity.Author;
+import com.mnb.entity.Book;
+import com.mnb.event.CatalogueChangedEvent;
+import com.mnb.repository.AuthorRepository;
+import com.mnb.repository.BookRepository;
+import com.mnb.repository.PublisherRepository;
+import com.mnb.service.AuthorService;
+import com.mnb.service.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Saves through the service outside of a web request, so no open session keeps the rows the
+ * resolver reads managed; BookServiceImplTest mocks the repositories and cannot see that.
+ */
+@SpringBootTest(properties = "library.backfill.enabled=false")
+class BookReferenceSaveTest {
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private PublisherRepository publisherRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAllInBatch();
+        authorRepository.deleteAllInBatch();
+        publisherRepository.deleteAllInBatch();
+        eventPublisher.publishEvent(CatalogueChangedEvent.bulk(Book.class));
+    }
+
+    @Test
+    void save_ShouldLinkNewBookToExistingAuthor() {
+        Author author = new Author();
+        author.setAuthorName("Frank Herbert");
+        authorRepository.save(author);
+        Book book = new Book();
+        book.setBookName("Dune");
+        book.setBooksAuthor("frank herbert");
+        book.setBooksPublisher("Chilton Books");
+
+        bookService.save(book);
+
+        Book stored = bookRepository.findById(book.getId()).orElseThrow();
+        assertEquals(author.getId(), stored.getAuthor().getId());
+        assertEquals("Chilton Books", stored.getPublisher().getPublisherName());
+        assertEquals(1, authorRepository.count());
+    }
+
+    @Test
+    void save_ShouldRelinkEditedBook() {
+        Book book = new Book();
+        book.setBookName("Dune");
+        book.setBooksAuthor("Frank Herbert");
+        bookService.save(book);
+        Author other = new Author();
+        other.setAuthorName("Brian Herbert");
+        authorRepository.save(other);
+
+        Book form = bookRepository.findById(book.getId()).orElseThrow();
+        form.setBooksAuthor("Brian Herbert");
+        bookService.save(form);
+
+        Book stored = bookRepository.findById(book.getId()).orElseThrow();
+        assertEquals(other.getId(), stored.getAuthor().getId());
+        assertEquals(form.getVersion(), stored.getVersion());
+    }
+
+    @Test
+    void save_ShouldKeepTheAuthorOfABookEditedAfterTheAuthorWasRenamed() {
+        Book book = new Book();
+        book.setBookName("Dune");
+        book.setBooksAuthor("Frank Herbert");
+        bookService.save(book);
+        Author author = authorRepository.findById(bookRepository.findById(book.getId()).orElseThrow().getAuthor().getId())
+                .orElseThrow();
+        author.setAuthorName("Franklin Herbert");
+        authorService.save(author);
+
+        Book form = bookRepository.findById(book.getId()).orElseThrow();
+        assertEquals("Franklin Herbert", form.getBooksAuthor());
+        form.setBookName("Dune (revised)");
+        bookService.save(form);
+
+        Book stored = bookRepository.findById(book.getId()).orElseThrow();
+        assertEquals(author.getId(), stored.getAuthor().getId());
+        assertEquals(1, authorRepository.count());
+    }
+}
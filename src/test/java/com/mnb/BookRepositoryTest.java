@@ -0,0 +1,240 @@
+package com.mnb;
+
+import com.mnb.dto.BookSummary;
+import com.mnb.entity.Author;
+import com.mnb.entity.Book;
+import com.mnb.entity.Publisher;
+import com.mnb.repository.BookRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BookRepositoryTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void findPageAfter_ShouldUseOneStatement_RegardlessOfBookCount(int bookCount) {
+        seed(bookCount);
+
+        List<Book> books = bookRepository.findPageAfter(0, Limit.of(100));
+
+        assertEquals(bookCount, books.size());
+        assertNotNull(books.get(bookCount - 1).getAuthor().getAuthorName());
+        assertNotNull(books.get(bookCount - 1).getPublisher().getPublisherName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void findSummaryPageAfter_ShouldNotLoadEntities(int bookCount) {
+        seed(bookCount);
+
+        List<BookSummary> books = bookRepository.findSummaryPageAfter(0, Limit.of(100));
+
+        assertEquals(bookCount, books.size());
+        assertEquals("Book 0", books.get(0).getBookName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void findByName_ShouldUseOneStatement_RegardlessOfBookCount(int bookCount) {
+        seed(bookCount);
+
+        List<Book> books = bookRepository.findByName("Book");
+
+        assertEquals(bookCount, books.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void findByIdIn_ShouldUseOneStatement_RegardlessOfBookCount(int bookCount) {
+        List<Integer> ids = seed(bookCount);
+
+        List<Book> books = bookRepository.findByIdIn(ids);
+
+        assertEquals(bookCount, books.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findSummaryPageByAuthorAfter_ShouldSeekOnTheAuthorIndex() {
+        List<Integer> ids = seed(5);
+        Book first = entityManager.find(Book.class, ids.get(0));
+        Author author = first.getAuthor();
+        for (int i = 0; i < 4; i++) {
+            Book book = new Book();
+            book.setBookName("More " + i);
+            book.setAuthor(author);
+            entityManager.persist(book);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        List<BookSummary> page = bookRepository.findSummaryPageByAuthorAfter(author.getId(), first.getId(), Limit.of(3));
+
+        assertEquals(List.of("More 0", "More 1", "More 2"), page.stream().map(BookSummary::getBookName).toList());
+        String plan = String.valueOf(entityManager.getEntityManager().createNativeQuery(
+                "EXPLAIN SELECT ID FROM BOOK WHERE AUTHOR_ID = 1 AND ID > 0 ORDER BY ID").getSingleResult());
+        assertTrue(plan.contains("IDX_BOOK_AUTHOR_ID"), plan);
+    }
+
+    @Test
+    void assignAuthor_ShouldUpdateAllBooksInOneStatement() {
+        List<Integer> ids = seed(20);
+        Author author = new Author();
+        author.setAuthorName("Anonymous");
+        entityManager.persist(author);
+        entityManager.flush();
+        statistics.clear();
+
+        int updated = bookRepository.assignAuthor(author, "Anonymous", ids.subList(0, 15));
+
+        assertEquals(15, updated);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        Book moved = entityManager.find(Book.class, ids.get(14));
+        assertEquals(author.getId(), moved.getAuthor().getId());
+        assertEquals("Anonymous", moved.getBooksAuthor());
+        assertEquals(1, moved.getVersion());
+        assertEquals("Author 15", entityManager.find(Book.class, ids.get(15)).getAuthor().getAuthorName());
+        assertEquals(0, entityManager.find(Book.class, ids.get(15)).getVersion());
+    }
+
+    @Test
+    void searchByPublisher_ShouldMatchTheKeywordWithinThePublishersBooksOnly() {
+        List<Integer> ids = seed(3);
+        Book first = entityManager.find(Book.class, ids.get(0));
+        Book other = new Book();
+        other.setBookName("Another Story");
+        other.setPublisher(first.getPublisher());
+        entityManager.persist(other);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        int publisherId = first.getPublisher().getId();
+        List<Book> all = bookRepository.searchByPublisher(publisherId, "", Limit.of(10));
+        List<Book> matching = bookRepository.searchByPublisher(publisherId, "%story%", Limit.of(10));
+
+        assertEquals(List.of("Book 0", "Another Story"), all.stream().map(Book::getBookName).toList());
+        assertEquals(List.of("Another Story"), matching.stream().map(Book::getBookName).toList());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        String plan = String.valueOf(entityManager.getEntityManager().createNativeQuery(
+                "EXPLAIN SELECT ID FROM BOOK WHERE PUBLISHER_ID = 1 ORDER BY ID").getSingleResult());
+        // the foreign key constraint's own index, H2 creates one for every constraint
+        assertTrue(plan.contains("PUBLISHER_ID = 1 */"), plan);
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    @Test
+    void findUnlinkedPageAfter_ShouldSkipLinkedAndNamelessBooks() {
+        List<Integer> ids = seed(2);
+        Book unlinked = new Book();
+        unlinked.setBookName("Unlinked");
+        unlinked.setBooksPublisher("Ace Books");
+        Book nameless = new Book();
+        nameless.setBookName("Nameless");
+        Integer unlinkedId = entityManager.persist(unlinked).getId();
+        entityManager.persist(nameless);
+        entityManager.flush();
+
+        List<Book> page = bookRepository.findUnlinkedPageAfter(0, Limit.of(10));
+
+        assertEquals(List.of(unlinkedId), page.stream().map(Book::getId).toList());
+        assertTrue(bookRepository.findUnlinkedPageAfter(unlinkedId, Limit.of(10)).isEmpty());
+        assertFalse(ids.contains(unlinkedId));
+    }
+
+    @Test
+    void updateVersioned_ShouldWriteWithoutReading_AndRejectStaleVersions() {
+        List<Integer> ids = seed(1);
+        Book form = new Book();
+        form.setId(ids.get(0));
+        form.setVersion(0);
+        form.setBookName("Renamed");
+        form.setBooksAuthor("Nobody");
+
+        assertEquals(1, bookRepository.updateVersioned(form));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        // the same form posted again is one version behind
+        assertEquals(0, bookRepository.updateVersioned(form));
+        // nor does a form without one match any row
+        form.setVersion(null);
+        assertEquals(0, bookRepository.updateVersioned(form));
+        form.setVersion(1);
+        assertEquals(1, bookRepository.updateVersioned(form));
+
+        entityManager.clear();
+        Book stored = entityManager.find(Book.class, ids.get(0));
+        assertEquals("Renamed", stored.getBookName());
+        assertEquals(2, stored.getVersion());
+        assertNull(stored.getAuthor());
+    }
+
+    @Test
+    void save_ShouldNameTheIsbnKey_WhenTheIsbnIsTaken() {
+        Book first = new Book();
+        first.setBookName("Dune");
+        first.setIsbn("9780441172719");
+        bookRepository.saveAndFlush(first);
+        Book second = new Book();
+        second.setBookName("Dune (copy)");
+        second.setIsbn("9780441172719");
+
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                () -> bookRepository.saveAndFlush(second));
+
+        // what BookController looks for to report a duplicate ISBN
+        ConstraintViolationException violation = assertInstanceOf(ConstraintViolationException.class, e.getCause());
+        assertTrue(violation.getConstraintName().toUpperCase().contains(Book.ISBN_KEY), violation.getConstraintName());
+    }
+
+    // every book gets its own author and publisher, the worst case for eager @ManyToOne loading
+    private List<Integer> seed(int bookCount) {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < bookCount; i++) {
+            Author author = new Author();
+            author.setAuthorName("Author " + i);
+            Publisher publisher = new Publisher();
+            publisher.setPublisherName("Publisher " + i);
+            Book book = new Book();
+            book.setBookName("Book " + i);
+            book.setAuthor(author);
+            book.setPublisher(publisher);
+            ids.add(entityManager.persist(book).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return ids;
+    }
+}
@@ -0,0 +1,82 @@
+package com.mnb;
+
+import com.mnb.cache.BookSearchCacheInvalidator;
+import com.mnb.config.CacheConfig;
+import com.mnb.entity.Book;
+import com.mnb.event.CatalogueChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookSearchCacheInvalidatorTest {
+
+    private Cache cache;
+    private BookSearchCacheInvalidator invalidator;
+    private Book tolkien;
+    private Book bloch;
+
+    @BeforeEach
+    void setUp() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(CacheConfig.BOOK_SEARCH);
+        cache = cacheManager.getCache(CacheConfig.BOOK_SEARCH);
+        invalidator = new BookSearchCacheInvalidator(cacheManager);
+
+        tolkien = book(1, "The Lord of the Rings", "9780544003415");
+        bloch = book(2, "Effective Java", "9780134685991");
+        cache.put("rings", List.of(tolkien));
+        cache.put("java", List.of(bloch));
+        cache.put("9780134685991", List.of(bloch));
+        cache.put("python", List.of());
+    }
+
+    @Test
+    void savingABook_ShouldEvictKeywordsWhoseResultsContainIt() {
+        invalidator.onCatalogueChanged(CatalogueChangedEvent.saved(Book.class, 1, tolkien));
+
+        assertNull(cache.get("rings"));
+        assertNotNull(cache.get("java"));
+        assertNotNull(cache.get("python"));
+    }
+
+    @Test
+    void savingABook_ShouldEvictKeywordsItNowMatches() {
+        Book renamed = book(1, "Python Crash Course", "9781593279288");
+
+        invalidator.onCatalogueChanged(CatalogueChangedEvent.saved(Book.class, 1, renamed));
+
+        assertNull(cache.get("python"));
+        assertNull(cache.get("rings"));
+        assertNotNull(cache.get("java"));
+        assertNotNull(cache.get("9780134685991"));
+    }
+
+    @Test
+    void deletingABook_ShouldEvictKeywordsWhoseResultsContainIt() {
+        invalidator.onCatalogueChanged(CatalogueChangedEvent.deleted(Book.class, 2));
+
+        assertNull(cache.get("java"));
+        assertNull(cache.get("9780134685991"));
+        assertNotNull(cache.get("rings"));
+    }
+
+    @Test
+    void authorChanges_ShouldLeaveSearchResultsCached() {
+        invalidator.onCatalogueChanged(CatalogueChangedEvent.deleted(com.mnb.entity.Author.class, 1));
+
+        assertNotNull(cache.get("rings"));
+        assertNotNull(cache.get("java"));
+    }
+
+    private static Book book(int id, String name, String isbn) {
+        Book book = new Book();
+        book.setId(id);
+        book.setBookName(name);
+        book.setIsbn(isbn);
+        return book;
+    }
+}
@@ -0,0 +1,129 @@
+package com.mnb;
+
+import com.mnb.dto.BookSuggestion;
+import com.mnb.entity.Book;
+import com.mnb.event.CatalogueChangedEvent;
+import com.mnb.repository.BookRepository;
+import com.mnb.search.BookPrefixIndex;
+import com.mnb.search.BookSearchIndex;
+import com.mnb.snapshot.CatalogueSnapshotStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookSearchIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private CatalogueSnapshotStore snapshotStore;
+
+    private BookSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        BookPrefixIndex prefixIndex = new BookPrefixIndex(bookRepository, snapshotStore);
+        searchIndex = new BookSearchIndex(bookRepository, snapshotStore, prefixIndex);
+        List<Book> books = List.of(
+                book(1, "The Lord of the Rings", "9780544003415", "Middle-earth", "J.R.R. Tolkien"),
+                book(2, "Rings of Saturn", "9780811214131", null, "W.G. Sebald"),
+                book(3, "Effective Java", "9780134685991", null, "Joshua Bloch"));
+        when(bookRepository.findPageAfter(0, Limit.of(1000))).thenReturn(books);
+        searchIndex.rebuild();
+        for (Book book : books) {
+            prefixIndex.index(new BookSuggestion(book.getId(), book.getBookName(), book.getBooksAuthor(), book.getIsbn()));
+        }
+    }
+
+    @Test
+    void rebuild_ShouldIndexAllBooks() {
+        assertTrue(searchIndex.isReady());
+        assertEquals(3, searchIndex.size());
+    }
+
+    @Test
+    void search_ShouldMatchSubstringsCaseInsensitively() {
+        assertEquals(List.of(2, 1), searchIndex.search("RINGS"));
+        assertEquals(List.of(3), searchIndex.search("bloch"));
+        assertEquals(List.of(1), searchIndex.search("0544"));
+    }
+
+    @Test
+    void search_ShouldRankPrefixMatchesFirst() {
+        // "Rings of Saturn" starts with the keyword, "The Lord of the Rings" only contains it
+        assertEquals(List.of(2, 1), searchIndex.search("rings"));
+    }
+
+    @Test
+    void search_ShouldHandleShortKeywords() {
+        assertEquals(List.of(3, 1), searchIndex.search("j"));
+    }
+
+    @Test
+    void search_ShouldMatchShortKeywordsOnWordStartsOnly() {
+        // "of" starts a word of both titles, "av" is only inside "Java"
+        assertEquals(List.of(1, 2), searchIndex.search("of"));
+        assertTrue(searchIndex.search("av").isEmpty());
+    }
+
+    @Test
+    void search_ShouldReturnEmptyList_ForBlankOrUnknownKeywords() {
+        assertTrue(searchIndex.search(null).isEmpty());
+        assertTrue(searchIndex.search("  ").isEmpty());
+        assertTrue(searchIndex.search("python").isEmpty());
+    }
+
+    @Test
+    void rebuild_ShouldKeepServingThePreviousIndex_UntilTheNewOneIsComplete() {
+        List<List<Integer>> seenDuringRebuild = new ArrayList<>();
+        when(bookRepository.findPageAfter(0, Limit.of(1000))).thenAnswer(invocation -> {
+            seenDuringRebuild.add(searchIndex.search("rings"));
+            return List.of(book(2, "Rings of Saturn", "9780811214131", null, "W.G. Sebald"));
+        });
+
+        searchIndex.onCatalogueChanged(CatalogueChangedEvent.bulk(Book.class));
+
+        assertEquals(List.of(List.of(2, 1)), seenDuringRebuild);
+        assertEquals(List.of(2), searchIndex.search("rings"));
+        assertEquals(1, searchIndex.size());
+    }
+
+    @Test
+    void onCatalogueChanged_ShouldReindexSavedBook() {
+        Book renamed = book(3, "Java Concurrency in Practice", "9780321349606", null, "Brian Goetz");
+
+        searchIndex.onCatalogueChanged(CatalogueChangedEvent.saved(Book.class, 3, renamed));
+
+        assertTrue(searchIndex.search("effective").isEmpty());
+        assertEquals(List.of(3), searchIndex.search("concurrency"));
+    }
+
+    @Test
+    void onCatalogueChanged_ShouldDropDeletedBook() {
+        searchIndex.onCatalogueChanged(CatalogueChangedEvent.deleted(Book.class, 1));
+
+        assertEquals(List.of(2), searchIndex.search("rings"));
+        assertEquals(2, searchIndex.size());
+    }
+
+    private static Book book(int id, String name, String isbn, String serialName, String author) {
+        Book book = new Book();
+        book.setId(id);
+        book.setBookName(name);
+        book.setIsbn(isbn);
+        book.setSerialName(serialName);
+        book.setBooksAuthor(author);
+        return book;
+    }
+}
@@ -1,17 +1,27 @@
 package com.mnb;
 
+import com.mnb.dto.BookPage;
+import com.mnb.dto.BookSummary;
 import com.mnb.entity.Author;
 import com.mnb.entity.Book;
 import com.mnb.entity.Publisher;
+import com.mnb.event.CatalogueChangedEvent;
 import com.mnb.exception.NotFoundException;
 import com.mnb.repository.BookRepository;
+import com.mnb.search.BookSearchIndex;
+import com.mnb.service.BookReferenceResolver;
 import com.mnb.service.BookServiceImpl;
+import com.mnb.snapshot.CatalogueSnapshotStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Arrays;
 import java.util.List;
@@ -26,6 +36,21 @@ class BookServiceImplTest {
     @Mock
     private BookRepository bookRepository;
 
+    @Mock
+    private BookSearchIndex searchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CatalogueSnapshotStore snapshotStore;
+
+    @Mock
+    private BookReferenceResolver referenceResolver;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private BookServiceImpl bookService;
 
@@ -38,6 +63,7 @@ class BookServiceImplTest {
         book.setBookName("The Lord of the Rings");
         book.setIsbn("978-0544003415");
         book.setBooksAuthor("J.R.R. Tolkien");
+        book.setVersion(0);
     }
 
     @Test
@@ -54,6 +80,54 @@ class BookServiceImplTest {
         verify(bookRepository, times(1)).findAll();
     }
 
+    @Test
+    void findPage_ShouldReturnFirstPageWithNextCursor() {
+        when(bookRepository.findSummaryPageAfter(0, Limit.of(3))).thenReturn(Arrays.asList(summary(1), summary(2), summary(3)));
+
+        BookPage page = bookService.findPage(null, null, 2);
+
+        assertEquals(2, page.getBooks().size());
+        assertNull(page.getPreviousCursor());
+        assertEquals(2, page.getNextCursor());
+        verify(bookRepository, times(1)).findSummaryPageAfter(0, Limit.of(3));
+    }
+
+    @Test
+    void findPage_ShouldReturnLastPageWithoutNextCursor() {
+        when(bookRepository.findSummaryPageAfter(1, Limit.of(3))).thenReturn(List.of(summary(2)));
+
+        BookPage page = bookService.findPage(1, null, 2);
+
+        assertEquals(1, page.getBooks().size());
+        assertEquals(2, page.getPreviousCursor());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void findPage_ShouldSeekBackwardsAndRestoreAscendingOrder() {
+        when(bookRepository.findSummaryPageBefore(4, Limit.of(3))).thenReturn(Arrays.asList(summary(3), summary(2), summary(1)));
+
+        BookPage page = bookService.findPage(null, 4, 2);
+
+        assertEquals(List.of(summary(2), summary(3)), page.getBooks());
+        assertEquals(2, page.getPreviousCursor());
+        assertEquals(3, page.getNextCursor());
+        verify(bookRepository, never()).findSummaryPageAfter(anyInt(), any());
+    }
+
+    @Test
+    void findPageByAuthor_ShouldSeekWithinTheAuthor() {
+        when(bookRepository.findSummaryPageByAuthorAfter(7, 2, Limit.of(3)))
+                .thenReturn(Arrays.asList(summary(3), summary(5), summary(8)));
+
+        BookPage page = bookService.findPageByAuthor(7, 2, null, 2);
+
+        assertEquals(List.of(summary(3), summary(5)), page.getBooks());
+        assertEquals(3, page.getPreviousCursor());
+        assertEquals(5, page.getNextCursor());
+        verify(bookRepository, never()).findSummaryPageAfter(anyInt(), any());
+    }
+
     @Test
     void findById_ShouldReturnBook_WhenBookExists() {
         when(bookRepository.findById(1)).thenReturn(Optional.of(book));
@@ -95,7 +169,7 @@ class BookServiceImplTest {
     }
 
     @Test
-    void findBookByName_ShouldReturnMatchingBooks() {
+    void findBookByName_ShouldReturnMatchingBooksInRankedOrder() {
         String keyword = "Ring";
         Book matchingBook1 = new Book();
         matchingBook1.setId(1);
@@ -105,25 +179,131 @@ class BookServiceImplTest {
         matchingBook2.setId(2);
         matchingBook2.setIsbn("123-RING-456");
 
-        List<Book> expectedBooks = Arrays.asList(matchingBook1, matchingBook2);
-        when(bookRepository.findByName(keyword)).thenReturn(expectedBooks);
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search(keyword)).thenReturn(List.of(2, 1));
+        when(bookRepository.findByIdIn(List.of(2, 1))).thenReturn(Arrays.asList(matchingBook1, matchingBook2));
 
         List<Book> result = bookService.findBookByName(keyword);
 
-        assertEquals(2, result.size());
-        assertTrue(result.stream().anyMatch(b -> b.getBookName().contains(keyword)));
-        verify(bookRepository, times(1)).findByName(keyword);
+        assertEquals(List.of(matchingBook2, matchingBook1), result);
+        verify(bookRepository, never()).findByName(anyString());
     }
 
     @Test
     void findBookByName_ShouldReturnEmptyList_WhenNoMatchesFound() {
         String keyword = "Nonexistent";
-        when(bookRepository.findByName(keyword)).thenReturn(List.of());
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search(keyword)).thenReturn(List.of());
 
         List<Book> result = bookService.findBookByName(keyword);
 
         assertTrue(result.isEmpty());
-        verify(bookRepository, times(1)).findByName(keyword);
+        verify(bookRepository, never()).findByIdIn(any());
+    }
+
+    @Test
+    void findBookByName_ShouldUseIsbnIndex_WhenKeywordIsAnIsbn() {
+        when(bookRepository.findByIsbn("9780544003415")).thenReturn(Optional.of(book));
+
+        List<Book> result = bookService.findBookByName("978-0-544-00341-5");
+
+        assertEquals(List.of(book), result);
+        verify(searchIndex, never()).search(anyString());
+        verify(bookRepository, never()).findByName(anyString());
+    }
+
+    @Test
+    void findBookByName_ShouldLookUpAnIsbn10AsIsbn13() {
+        when(bookRepository.findByIsbn("9780544003415")).thenReturn(Optional.of(book));
+
+        List<Book> result = bookService.findBookByName("0-544-00341-1");
+
+        assertEquals(List.of(book), result);
+    }
+
+    @Test
+    void findBookByName_ShouldFallBackToTheTitleSearch_WhenIsbnIsUnknown() {
+        when(bookRepository.findByIsbn("9780134685991")).thenReturn(Optional.empty());
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search("9780134685991")).thenReturn(List.of(1));
+        when(bookRepository.findByIdIn(List.of(1))).thenReturn(List.of(book));
+
+        List<Book> result = bookService.findBookByName("9780134685991");
+
+        assertEquals(List.of(book), result);
+    }
+
+    @Test
+    void save_ShouldNormalizeIsbn() {
+        when(bookRepository.updateVersioned(book)).thenReturn(1);
+
+        bookService.save(book);
+
+        assertEquals("9780544003415", book.getIsbn());
+        verify(bookRepository, times(1)).updateVersioned(book);
+    }
+
+    @Test
+    void save_ShouldUpdateExistingBookWithoutReadingIt() {
+        book.setVersion(2);
+        when(bookRepository.updateVersioned(book)).thenReturn(1);
+
+        bookService.save(book);
+
+        assertEquals(3, book.getVersion());
+        verify(referenceResolver).saveCreated(book);
+        verify(bookRepository, never()).findById(anyInt());
+        verify(bookRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(CatalogueChangedEvent.saved(Book.class, 1, book));
+    }
+
+    @Test
+    void save_ShouldReportConflict_WhenTheVersionIsStale() {
+        book.setVersion(2);
+        when(bookRepository.updateVersioned(book)).thenReturn(0);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> bookService.save(book));
+
+        assertEquals(2, book.getVersion());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void save_ShouldRejectAnEditWithoutVersion() {
+        book.setVersion(null);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> bookService.save(book));
+
+        verify(bookRepository, never()).updateVersioned(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void findBookByName_ShouldFallBackToQuery_WhenIndexIsNotReady() {
+        String keyword = "Ring";
+        when(searchIndex.isReady()).thenReturn(false);
+        when(bookRepository.findByName(keyword)).thenReturn(List.of(book));
+
+        List<Book> result = bookService.findBookByName(keyword);
+
+        assertEquals(List.of(book), result);
+        verify(searchIndex, never()).search(anyString());
+    }
+
+    @Test
+    void save_ShouldPublishChangeEvent() {
+        when(bookRepository.updateVersioned(book)).thenReturn(1);
+
+        bookService.save(book);
+
+        verify(eventPublisher, times(1)).publishEvent(CatalogueChangedEvent.saved(Book.class, 1, book));
+    }
+
+    @Test
+    void deleteById_ShouldPublishChangeEvent() {
+        bookService.deleteById(1);
+
+        verify(eventPublisher, times(1)).publishEvent(CatalogueChangedEvent.deleted(Book.class, 1));
     }
 
     @Test
@@ -131,10 +311,11 @@ class BookServiceImplTest {
         Author author = new Author();
         author.setId(1);
         book.setAuthor(author);
+        when(bookRepository.updateVersioned(book)).thenReturn(1);
 
         bookService.save(book);
 
-        verify(bookRepository, times(1)).save(book);
+        verify(bookRepository, times(1)).updateVersioned(book);
         assertEquals(author, book.getAuthor());
     }
 
@@ -143,10 +324,72 @@ class BookServiceImplTest {
         Publisher publisher = new Publisher();
         publisher.setId(1);
         book.setPublisher(publisher);
+        when(bookRepository.updateVersioned(book)).thenReturn(1);
 
         bookService.save(book);
 
-        verify(bookRepository, times(1)).save(book);
+        verify(bookRepository, times(1)).updateVersioned(book);
         assertEquals(publisher, book.getPublisher());
     }
-}
\ No newline at end of file
+
+    @Test
+    void save_ShouldResolveReferencesAndAnnounceNewAuthor() {
+        book.setId(null);
+        Author created = new Author();
+        created.setAuthorName("J.R.R. Tolkien");
+        doAnswer(invocation -> {
+            invocation.<Book>getArgument(0).setAuthor(created);
+            return null;
+        }).when(referenceResolver).resolve(book);
+        when(bookRepository.save(book)).thenAnswer(invocation -> {
+            created.setId(7);
+            book.setId(1);
+            return book;
+        });
+
+        bookService.save(book);
+
+        verify(eventPublisher).publishEvent(CatalogueChangedEvent.saved(Author.class, 7, created));
+        verify(eventPublisher).publishEvent(CatalogueChangedEvent.saved(Book.class, 1, book));
+        verify(eventPublisher, times(2)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void search_ShouldFilterThroughTheAuthorForeignKey() {
+        Author author = new Author();
+        author.setId(3);
+        when(referenceResolver.findAuthor("tolkien")).thenReturn(Optional.of(author));
+        when(bookRepository.searchByAuthor(3, "%rings%", Limit.of(200))).thenReturn(List.of(book));
+
+        List<Book> result = bookService.search(" Rings ", "tolkien", null);
+
+        assertEquals(List.of(book), result);
+        verify(bookRepository, never()).findByName(anyString());
+        verifyNoInteractions(searchIndex);
+    }
+
+    @Test
+    void search_ShouldCombineAuthorAndPublisher_WithoutKeyword() {
+        Author author = new Author();
+        author.setId(3);
+        Publisher publisher = new Publisher();
+        publisher.setId(4);
+        when(referenceResolver.findAuthor("Tolkien")).thenReturn(Optional.of(author));
+        when(referenceResolver.findPublisher("Allen & Unwin")).thenReturn(Optional.of(publisher));
+        when(bookRepository.searchByAuthorAndPublisher(3, 4, "", Limit.of(200))).thenReturn(List.of(book));
+
+        assertEquals(List.of(book), bookService.search("", "Tolkien", "Allen & Unwin"));
+    }
+
+    @Test
+    void search_ShouldReturnNothing_WhenThePublisherIsUnknown() {
+        when(referenceResolver.findPublisher("Nobody")).thenReturn(Optional.empty());
+
+        assertTrue(bookService.search("Rings", null, "Nobody").isEmpty());
+        verifyNoInteractions(bookRepository);
+    }
+
+    private static BookSummary summary(int id) {
+        return new BookSummary(id, "Book " + id, null, null, null, null, null, null);
+    }
+}
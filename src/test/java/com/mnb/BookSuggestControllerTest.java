@@ -0,0 +1,78 @@
+package com.mnb.controller;
+
+import com.mnb.dto.BookSuggestion;
+import com.mnb.search.BookPrefixIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookSuggestControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private BookPrefixIndex prefixIndex;
+
+    @InjectMocks
+    private BookSuggestController suggestController;
+
+    private final MockHttpSession session = new MockHttpSession();
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(suggestController).build();
+    }
+
+    @Test
+    void suggest_ShouldAnswerFromThePrefixIndexAfterTheDebounce() throws Exception {
+        when(prefixIndex.suggest("dun", 10)).thenReturn(List.of(new BookSuggestion(1, "Dune", "Frank Herbert", null)));
+
+        MvcResult result = mockMvc.perform(get("/books/suggest").param("q", "dun").session(session))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].bookName", is("Dune")));
+    }
+
+    @Test
+    void suggest_ShouldAnswerSupersededQueriesWithNoContent() throws Exception {
+        when(prefixIndex.suggest("dune", 10)).thenReturn(List.of());
+
+        MvcResult first = mockMvc.perform(get("/books/suggest").param("q", "dun").session(session)).andReturn();
+        MvcResult second = mockMvc.perform(get("/books/suggest").param("q", "dune").session(session)).andReturn();
+
+        mockMvc.perform(asyncDispatch(first)).andExpect(status().isNoContent());
+        mockMvc.perform(asyncDispatch(second)).andExpect(status().isOk());
+        verify(prefixIndex, never()).suggest(eq("dun"), anyInt());
+    }
+
+    @Test
+    void suggest_ShouldDebounceEachSessionOnItsOwn() throws Exception {
+        when(prefixIndex.suggest(anyString(), eq(10))).thenReturn(List.of());
+
+        MvcResult first = mockMvc.perform(get("/books/suggest").param("q", "dun").session(session)).andReturn();
+        MvcResult other = mockMvc.perform(get("/books/suggest").param("q", "emm").session(new MockHttpSession())).andReturn();
+
+        mockMvc.perform(asyncDispatch(first)).andExpect(status().isOk());
+        mockMvc.perform(asyncDispatch(other)).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,127 @@
+package com.mnb;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mnb.entity.Author;
+import com.mnb.entity.Book;
+import com.mnb.entity.Publisher;
+import com.mnb.service.BookImportService;
+import com.mnb.service.BookImportServiceImpl;
+import com.mnb.service.CatalogueExportService;
+import com.mnb.service.CatalogueExportService.Format;
+import com.mnb.service.CatalogueExportServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({CatalogueExportServiceImpl.class, BookImportServiceImpl.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class CatalogueExportServiceImplTest {
+
+    @Autowired
+    private CatalogueExportService exportService;
+
+    @Autowired
+    private BookImportService importService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Book dune;
+
+    @BeforeEach
+    void setUp() {
+        Author author = new Author();
+        author.setAuthorName("Frank Herbert");
+        entityManager.persist(author);
+        Publisher publisher = new Publisher();
+        publisher.setPublisherName("Chilton, Ace");
+        entityManager.persist(publisher);
+
+        dune = new Book();
+        dune.setBookName("Dune");
+        dune.setDescription("Spice, \"sand\"\nand worms");
+        dune.setIsbn("9780441013593");
+        dune.setAuthor(author);
+        dune.setPublisher(publisher);
+        entityManager.persist(dune);
+
+        Book messiah = new Book();
+        messiah.setBookName("Dune Messiah");
+        messiah.setBooksAuthor("F. Herbert");
+        entityManager.persist(messiah);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void exportBooks_ShouldWriteQuotedCsvWithHeader() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportBooks(Format.CSV, out);
+
+        assertEquals(2, rows);
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertTrue(csv.startsWith("id,bookName,bookSubname,serialName,author,publisher,description,isbn\r\n"));
+        assertTrue(csv.contains(dune.getId() + ",Dune,,,Frank Herbert,\"Chilton, Ace\",\"Spice, \"\"sand\"\"\nand worms\",9780441013593\r\n"));
+        assertTrue(csv.contains(",Dune Messiah,,,F. Herbert,,,\r\n"));
+    }
+
+    @Test
+    void exportBooks_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportBooks(Format.JSONL, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(2, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals(dune.getId().intValue(), first.get("id").asInt());
+        assertEquals("Frank Herbert", first.get("author").asText());
+        assertEquals("Spice, \"sand\"\nand worms", first.get("description").asText());
+        assertTrue(objectMapper.readTree(lines.get(1)).get("isbn").isNull());
+    }
+
+    @Test
+    void exportAuthorsAndPublishers_ShouldStreamSummaries() {
+        ByteArrayOutputStream authors = new ByteArrayOutputStream();
+        ByteArrayOutputStream publishers = new ByteArrayOutputStream();
+
+        assertEquals(1, exportService.exportAuthors(Format.CSV, authors));
+        assertEquals(1, exportService.exportPublishers(Format.JSONL, publishers));
+
+        assertTrue(authors.toString(StandardCharsets.UTF_8).contains(",Frank Herbert,\r\n"));
+        assertTrue(publishers.toString(StandardCharsets.UTF_8).contains("\"publisherName\":\"Chilton, Ace\""));
+    }
+
+    @Test
+    void exportBooks_ShouldProduceAFileTheImportAccepts() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportBooks(Format.CSV, out);
+        entityManager.getEntityManager().createQuery("delete from Book").executeUpdate();
+
+        long imported = importService.importCsv(new StringReader(out.toString(StandardCharsets.UTF_8))).getRows();
+
+        assertEquals(2, imported);
+        Book reimported = entityManager.getEntityManager()
+                .createQuery("select b from Book b where b.isbn = '9780441013593'", Book.class).getSingleResult();
+        assertEquals("Spice, \"sand\"\nand worms", reimported.getDescription());
+        assertEquals("Frank Herbert", reimported.getAuthor().getAuthorName());
+    }
+}
@@ -0,0 +1,222 @@
+package com.mnb.snapshot;
+
+import com.mnb.entity.Author;
+import com.mnb.entity.Book;
+import com.mnb.entity.Publisher;
+import com.mnb.event.BulkWriteEvent;
+import com.mnb.event.CatalogueChangedEvent;
+import com.mnb.repository.AuthorRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = {"library.snapshot.enabled=true", "library.snapshot.file=target/catalogue-test.snapshot"})
+@Import(CatalogueSnapshotStore.class)
+class CatalogueSnapshotStoreTest {
+
+    @Autowired
+    private CatalogueSnapshotStore snapshotStore;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @MockitoBean
+    private CatalogueFingerprint fingerprint;
+
+    @Value("${library.snapshot.file}")
+    private Path file;
+
+    private Author author;
+
+    private Book dune;
+
+    private Book anonymous;
+
+    @BeforeEach
+    void setUp() {
+        author = new Author();
+        author.setAuthorName("Frank Herbert");
+        entityManager.persist(author);
+        Publisher publisher = new Publisher();
+        publisher.setPublisherName("Chilton Books");
+        entityManager.persist(publisher);
+        dune = book("Dune", author, publisher);
+        // no author or publisher: the snapshot query must not drop it
+        anonymous = book("Beowulf", null, null);
+        entityManager.flush();
+        entityManager.clear();
+        snapshotStore.load();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void load_ShouldCopyTheCatalogue() {
+        CatalogueSnapshot snapshot = snapshotStore.current().orElseThrow();
+
+        assertEquals(2, snapshot.bookCount());
+        Book book = snapshot.book(dune.getId()).orElseThrow();
+        assertEquals("Dune", book.getBookName());
+        assertEquals("Frank Herbert", book.getAuthor().getAuthorName());
+        assertEquals("Chilton Books", book.getPublisher().getPublisherName());
+        assertNull(snapshot.book(anonymous.getId()).orElseThrow().getAuthor());
+        assertEquals(List.of("Frank Herbert"), snapshot.searchAuthors("HERB", 10).stream().map(a -> a.getAuthorName()).toList());
+    }
+
+    @Test
+    void load_ShouldKeepTheVersions_SoTheFormsCanPostThemBack() {
+        entityManager.find(Book.class, dune.getId()).setBookName("Dune (revised)");
+        entityManager.flush();
+        snapshotStore.load();
+
+        CatalogueSnapshot snapshot = snapshotStore.current().orElseThrow();
+        Book book = snapshot.book(dune.getId()).orElseThrow();
+        assertEquals(1, book.getVersion());
+        assertEquals(0, book.getAuthor().getVersion());
+        assertEquals(0, book.getPublisher().getVersion());
+
+        book.setVersion(2);
+        snapshotStore.onCatalogueChanged(CatalogueChangedEvent.saved(Book.class, book.getId(), book));
+        assertEquals(2, snapshotStore.current().orElseThrow().book(dune.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void authorBookCounts_ShouldMatchTheGroupedQuery() {
+        Author unknown = new Author();
+        unknown.setAuthorName("Anonymous");
+        entityManager.persist(unknown);
+        book("Children of Dune", entityManager.find(Author.class, author.getId()), null);
+        entityManager.flush();
+        snapshotStore.load();
+
+        assertEquals(authorRepository.findAllWithBookCounts(), snapshotStore.current().orElseThrow().authorBookCounts());
+        assertEquals("Children of Dune", snapshotStore.current().orElseThrow().authorBookCounts().get(0).getLatestTitle());
+    }
+
+    @Test
+    void onCatalogueChanged_ShouldSwapInANewSnapshot() {
+        CatalogueSnapshot before = snapshotStore.current().orElseThrow();
+        Book renamed = before.book(dune.getId()).orElseThrow();
+        renamed.setBookName("Dune Messiah");
+
+        snapshotStore.onCatalogueChanged(CatalogueChangedEvent.saved(Book.class, renamed.getId(), renamed));
+        snapshotStore.onCatalogueChanged(CatalogueChangedEvent.deleted(Book.class, anonymous.getId()));
+
+        CatalogueSnapshot after = snapshotStore.current().orElseThrow();
+        assertEquals("Dune Messiah", after.book(dune.getId()).orElseThrow().getBookName());
+        assertTrue(after.book(anonymous.getId()).isEmpty());
+        // readers of the old snapshot are not affected
+        assertEquals("Dune", before.book(dune.getId()).orElseThrow().getBookName());
+        assertEquals(2, before.bookCount());
+    }
+
+    @Test
+    void onCatalogueChanged_ShouldReloadOnBulkChanges() {
+        book("Emma", entityManager.find(Author.class, author.getId()), null);
+        entityManager.flush();
+
+        snapshotStore.onCatalogueChanged(CatalogueChangedEvent.bulk(Book.class));
+
+        assertEquals(3, snapshotStore.current().orElseThrow().bookCount());
+    }
+
+    @Test
+    void onCatalogueChanged_ShouldFollowAuthorChanges() {
+        Author renamed = snapshotStore.current().orElseThrow().author(author.getId()).orElseThrow();
+        renamed.setAuthorName("F. Herbert");
+
+        snapshotStore.onCatalogueChanged(CatalogueChangedEvent.saved(Author.class, renamed.getId(), renamed));
+
+        assertEquals("F. Herbert", snapshotStore.current().orElseThrow().book(dune.getId()).orElseThrow()
+                .getAuthor().getAuthorName());
+    }
+
+    @Test
+    void save_ShouldWriteTheFileOncePerSnapshot() throws Exception {
+        when(fingerprint.current()).thenReturn("v1");
+
+        assertTrue(snapshotStore.save());
+        assertFalse(snapshotStore.save());
+        assertTrue(Files.exists(file));
+
+        snapshotStore.onCatalogueChanged(CatalogueChangedEvent.deleted(Book.class, anonymous.getId()));
+        assertTrue(snapshotStore.save());
+    }
+
+    @Test
+    void save_ShouldWaitForARunningImport() throws Exception {
+        when(fingerprint.current()).thenReturn("v1");
+        snapshotStore.onBulkWrite(BulkWriteEvent.started());
+
+        assertFalse(snapshotStore.save());
+
+        snapshotStore.onBulkWrite(BulkWriteEvent.finished());
+        assertTrue(snapshotStore.save());
+    }
+
+    @Test
+    void load_ShouldMapBackTheFile_WhenTheDatabaseIsUnchanged() throws Exception {
+        when(fingerprint.current()).thenReturn("v1");
+        snapshotStore.save();
+        // the (stubbed) fingerprint does not see this, so the file must win over the table
+        entityManager.remove(entityManager.find(Book.class, anonymous.getId()));
+        entityManager.flush();
+
+        snapshotStore.load();
+
+        CatalogueSnapshot snapshot = snapshotStore.current().orElseThrow();
+        assertEquals(2, snapshot.bookCount());
+        assertEquals("Frank Herbert", snapshot.book(dune.getId()).orElseThrow().getAuthor().getAuthorName());
+    }
+
+    @Test
+    void load_ShouldIgnoreTheFile_WhenTheDatabaseChanged() throws Exception {
+        when(fingerprint.current()).thenReturn("v1");
+        snapshotStore.save();
+        entityManager.remove(entityManager.find(Book.class, anonymous.getId()));
+        entityManager.flush();
+        when(fingerprint.current()).thenReturn("v2");
+
+        snapshotStore.load();
+
+        assertEquals(1, snapshotStore.current().orElseThrow().bookCount());
+    }
+
+    @Test
+    void load_ShouldIgnoreADamagedFile() throws Exception {
+        Files.write(file, new byte[]{1, 2, 3});
+
+        snapshotStore.load();
+
+        assertEquals(2, snapshotStore.current().orElseThrow().bookCount());
+        verifyNoInteractions(fingerprint);
+    }
+
+    private Book book(String name, Author author, Publisher publisher) {
+        Book book = new Book();
+        book.setBookName(name);
+        book.setBooksAuthor(author == null ? null : author.getAuthorName());
+        book.setAuthor(author);
+        book.setPublisher(publisher);
+        return entityManager.persist(book);
+    }
+}
@@ -0,0 +1,108 @@
+package com.mnb.cache;
+
+import com.mnb.entity.Author;
+import com.mnb.entity.Book;
+import com.mnb.event.CatalogueChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.FlashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConditionalGetTest {
+
+    private TableVersions tableVersions;
+
+    private ConditionalGet conditionalGet;
+
+    private final MockHttpSession session = new MockHttpSession();
+
+    @BeforeEach
+    void setUp() {
+        tableVersions = new TableVersions();
+        conditionalGet = new ConditionalGet(tableVersions);
+    }
+
+    @Test
+    void checkNotModified_ShouldSetPrivateValidators() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(conditionalGet.checkNotModified(new ServletWebRequest(request(), response), Book.class));
+
+        assertNotNull(response.getHeader("ETag"));
+        assertEquals(tableVersions.startedAt(), response.getDateHeader("Last-Modified"));
+        assertEquals("private, no-cache", response.getHeader("Cache-Control"));
+    }
+
+    @Test
+    void checkNotModified_ShouldAnswer304_WhileTheTableIsUnchanged() {
+        String etag = etag(request());
+        MockHttpServletRequest revalidation = request();
+        revalidation.addHeader("If-None-Match", etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(conditionalGet.checkNotModified(new ServletWebRequest(revalidation, response), Book.class));
+        assertEquals(304, response.getStatus());
+    }
+
+    @Test
+    void checkNotModified_ShouldRenderAgain_AfterTheTableChanged() {
+        String etag = etag(request());
+        tableVersions.onCatalogueChanged(CatalogueChangedEvent.deleted(Book.class, 1));
+
+        assertFalse(notModified(etag, Book.class));
+        assertTrue(tableVersions.lastModified(Book.class) > tableVersions.startedAt());
+    }
+
+    @Test
+    void checkNotModified_ShouldIgnoreChangesToOtherTables() {
+        String etag = etag(request());
+        tableVersions.onCatalogueChanged(CatalogueChangedEvent.bulk(Author.class));
+
+        assertTrue(notModified(etag, Book.class));
+    }
+
+    @Test
+    void checkNotModified_ShouldNotMatchAnotherSession() {
+        String etag = etag(request());
+        MockHttpServletRequest otherSession = new MockHttpServletRequest("GET", "/books/list");
+        otherSession.setSession(new MockHttpSession());
+        otherSession.addHeader("If-None-Match", etag);
+
+        assertFalse(conditionalGet.checkNotModified(new ServletWebRequest(otherSession, new MockHttpServletResponse()), Book.class));
+    }
+
+    @Test
+    void checkNotModified_ShouldSkipPagesWithFlashMessages() {
+        MockHttpServletRequest request = request();
+        request.setAttribute(DispatcherServlet.INPUT_FLASH_MAP_ATTRIBUTE, new FlashMap());
+        request.addHeader("If-None-Match", etag(request()));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(conditionalGet.checkNotModified(new ServletWebRequest(request, response), Book.class));
+        assertNull(response.getHeader("ETag"));
+    }
+
+    private boolean notModified(String etag, Class<?> table) {
+        MockHttpServletRequest request = request();
+        request.addHeader("If-None-Match", etag);
+        return conditionalGet.checkNotModified(new ServletWebRequest(request, new MockHttpServletResponse()), table);
+    }
+
+    private String etag(MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        conditionalGet.checkNotModified(new ServletWebRequest(request, response), Book.class);
+        return response.getHeader("ETag");
+    }
+
+    private MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/books/list");
+        request.setSession(session);
+        return request;
+    }
+}
@@ -0,0 +1,211 @@
+package com.mnb;
+
+import com.mnb.dto.BookPage;
+import com.mnb.entity.Book;
+import com.mnb.event.CatalogueChangedEvent;
+import com.mnb.repository.AuthorRepository;
+import com.mnb.repository.BookRepository;
+import com.mnb.repository.PublisherRepository;
+import com.mnb.service.BookImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithAnonymousUser;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+/**
+ * Renders the pages against a real database with {@code fail-on-budget} switched on, so a
+ * change that adds statements to a page (typically lazy loading from a template) fails here.
+ * The budgets are the {@code library.jdbc.inspection.budgets} entries of application.properties.
+ */
+@SpringBootTest(properties = "library.jdbc.inspection.fail-on-budget=true")
+@AutoConfigureMockMvc
+@WithMockUser(roles = {"USER", "ADMIN"})
+class EndpointStatementBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookImportService importService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private PublisherRepository publisherRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        // through the import, so the search index and caches see the books
+        StringBuilder csv = new StringBuilder("bookName,author,publisher\n");
+        for (int i = 0; i < 50; i++) {
+            csv.append("Book ").append(i).append(",Author ").append(i % 10).append(",Publisher ").append(i % 10).append('\n');
+        }
+        importService.importCsv(new StringReader(csv.toString()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAllInBatch();
+        authorRepository.deleteAllInBatch();
+        publisherRepository.deleteAllInBatch();
+        eventPublisher.publishEvent(CatalogueChangedEvent.bulk(Book.class));
+    }
+
+    @Test
+    void bookPages_ShouldStayWithinTheirBudgets() throws Exception {
+        mockMvc.perform(get("/books/list")).andExpect(status().isOk());
+        Integer firstId = bookRepository.findSummaryPageAfter(0, Limit.of(1)).get(0).getId();
+        mockMvc.perform(get("/books/list").param("after", String.valueOf(firstId))).andExpect(status().isOk());
+        mockMvc.perform(get("/books/search").param("keyword", "Author 3"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("books", hasSize(5)));
+        mockMvc.perform(get("/books/showFormForUpdate").param("bookId", String.valueOf(firstId)))
+                .andExpect(status().isOk());
+        MvcResult suggestions = mockMvc.perform(get("/books/suggest").param("q", "author 3"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(suggestions))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(5)));
+    }
+
+    @Test
+    void listPages_ShouldAnswerRevalidationsWith304() throws Exception {
+        // the ETag is per session, like in a browser the session is carried over
+        MockHttpSession session = new MockHttpSession();
+        for (String page : new String[]{"/books/list", "/author/list", "/publisher/list"}) {
+            String etag = mockMvc.perform(get(page).session(session))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Cache-Control", "private, no-cache"))
+                    .andReturn().getResponse().getHeader("ETag");
+            mockMvc.perform(get(page).session(session).header("If-None-Match", etag))
+                    .andExpect(status().isNotModified());
+        }
+    }
+
+    @Test
+    void apiEndpoints_ShouldStayWithinTheirBudgets() throws Exception {
+        mockMvc.perform(get("/api/v1/books").param("size", "20").param("fields", "id,bookName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(20)));
+        mockMvc.perform(get("/api/v1/authors")).andExpect(status().isOk()).andExpect(jsonPath("$.items", hasSize(10)));
+        mockMvc.perform(get("/api/v1/publishers/search").param("q", "publisher 3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    @WithAnonymousUser
+    void api_ShouldAnswer401_WithoutCredentials() throws Exception {
+        mockMvc.perform(get("/api/v1/books")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/books/list")).andExpect(status().is3xxRedirection());
+    }
+
+    @Test
+    @WithAnonymousUser
+    void actuator_ShouldTakeBasicAuth_AndLeaveHealthOpen() throws Exception {
+        // /actuator/prometheus goes through the same chain, its registry is only switched on outside of tests
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics").with(httpBasic("bilal", "test123")))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Set-Cookie"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void bookImport_ShouldBeForbidden_WithoutTheAdminRole() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "books.csv", "text/csv",
+                "bookName,author,publisher\nDune,Frank Herbert,Chilton Books\n".getBytes(StandardCharsets.UTF_8));
+
+        mockMvc.perform(multipart("/books/import").file(file).with(csrf()))
+                .andExpect(status().isForbidden());
+
+        assertEquals(50, bookRepository.count());
+    }
+
+    @Test
+    void bookEdit_ShouldBeOneVersionedUpdate_AndRejectTheStaleForm() throws Exception {
+        Integer firstId = bookRepository.findSummaryPageAfter(0, Limit.of(1)).get(0).getId();
+        Book form = (Book) mockMvc.perform(get("/books/showFormForUpdate").param("bookId", String.valueOf(firstId)))
+                .andReturn().getModelAndView().getModel().get("books");
+        MockHttpServletRequestBuilder save = post("/books/save").with(csrf())
+                .param("id", String.valueOf(form.getId()))
+                .param("version", String.valueOf(form.getVersion()))
+                .param("bookName", "Renamed")
+                .param("booksAuthor", form.getBooksAuthor())
+                .param("booksPublisher", form.getBooksPublisher())
+                .param("author.id", String.valueOf(form.getAuthor().getId()))
+                .param("publisher.id", String.valueOf(form.getPublisher().getId()));
+
+        mockMvc.perform(save).andExpect(status().is3xxRedirection());
+        mockMvc.perform(save)
+                .andExpect(status().isOk())
+                .andExpect(view().name("book-form"))
+                .andExpect(model().attribute("errorMessage", containsString("changed or deleted by someone else")));
+
+        Book stored = bookRepository.findById(firstId).orElseThrow();
+        assertEquals("Renamed", stored.getBookName());
+        assertEquals(form.getVersion() + 1, stored.getVersion());
+        assertEquals(form.getAuthor().getId(), stored.getAuthor().getId());
+    }
+
+    @Test
+    void referenceDataPages_ShouldStayWithinTheirBudgets() throws Exception {
+        mockMvc.perform(get("/author/list")).andExpect(status().isOk());
+        mockMvc.perform(get("/publisher/list")).andExpect(status().isOk());
+        // "Author 3" has 5 books: two pages of 3 and 2
+        Integer authorId = authorRepository.searchSummaries("Author 3", Limit.of(1)).get(0).getId();
+        MvcResult firstPage = mockMvc.perform(get("/author/detail").param("authorId", String.valueOf(authorId))
+                        .param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(view().name("author-detail"))
+                .andExpect(model().attribute("books", hasSize(3)))
+                .andReturn();
+        BookPage page = (BookPage) firstPage.getModelAndView().getModel().get("page");
+        mockMvc.perform(get("/author/detail").param("authorId", String.valueOf(authorId))
+                        .param("after", String.valueOf(page.getNextCursor())).param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("books", hasSize(2)))
+                .andExpect(model().attribute("page", hasProperty("nextCursor", nullValue())));
+    }
+}
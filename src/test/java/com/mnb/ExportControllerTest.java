@@ -0,0 +1,86 @@
+package com.mnb.controller;
+
+import com.mnb.service.CatalogueExportService;
+import com.mnb.service.CatalogueExportService.Format;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private CatalogueExportService exportService;
+
+    @InjectMocks
+    private ExportController exportController;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(exportController).build();
+    }
+
+    @Test
+    void export_ShouldStreamBooksAsJsonLines() throws Exception {
+        when(exportService.exportBooks(eq(Format.JSONL), any())).thenAnswer(invocation -> {
+            write(invocation.getArgument(1), "{\"id\":1}\n");
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/export/books").param("format", "jsonl"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"books.jsonl\""))
+                .andExpect(content().string("{\"id\":1}\n"));
+    }
+
+    @Test
+    void export_ShouldDefaultToCsv() throws Exception {
+        MvcResult result = mockMvc.perform(get("/export/authors"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"authors.csv\""));
+
+        verify(exportService, times(1)).exportAuthors(eq(Format.CSV), any());
+    }
+
+    @Test
+    void export_ShouldRejectUnknownCatalogueAndFormat() throws Exception {
+        mockMvc.perform(get("/export/members"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/export/books").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(exportService);
+    }
+
+    private static void write(OutputStream out, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
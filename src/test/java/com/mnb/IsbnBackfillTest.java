@@ -0,0 +1,64 @@
+package com.mnb;
+
+import com.mnb.entity.Book;
+import com.mnb.repository.BookRepository;
+import com.mnb.service.IsbnBackfill;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the backfill commits batch by batch, so the test does not run in a transaction of its own
+@DataJpaTest(properties = {"library.backfill.enabled=false", "library.backfill.batch-size=2"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(IsbnBackfill.class)
+class IsbnBackfillTest {
+
+    @Autowired
+    private IsbnBackfill backfill;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void run_ShouldConvertStoredIsbn10sAcrossBatches() {
+        bookRepository.saveAll(List.of(book("Dune", "0134685997"), book("Emma", "080442957X"),
+                book("Ubik", "9780547928227"), book("Solaris", "ABCDEFGHIJ")));
+
+        assertEquals(2, backfill.run());
+
+        assertTrue(bookRepository.findByIsbn("9780134685991").isPresent());
+        assertEquals("Emma", bookRepository.findByIsbn("9780804429573").orElseThrow().getBookName());
+        assertEquals(1, (int) bookRepository.findByIsbn("9780134685991").orElseThrow().getVersion());
+        assertTrue(bookRepository.findByIsbn("ABCDEFGHIJ").isPresent());
+        assertEquals(0, backfill.run());
+    }
+
+    @Test
+    void run_ShouldKeepTheIsbn10_WhenItsIsbn13BelongsToAnotherBook() {
+        bookRepository.saveAll(List.of(book("Dune", "0134685997"), book("Dune (reprint)", "9780134685991")));
+
+        assertEquals(0, backfill.run());
+
+        assertEquals("Dune", bookRepository.findByIsbn("0134685997").orElseThrow().getBookName());
+    }
+
+    private static Book book(String name, String isbn) {
+        Book book = new Book();
+        book.setBookName(name);
+        book.setIsbn(isbn);
+        return book;
+    }
+}
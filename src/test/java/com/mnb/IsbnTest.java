@@ -0,0 +1,36 @@
+package com.mnb;
+
+import com.mnb.search.Isbn;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IsbnTest {
+
+    @Test
+    void parse_ShouldNormalizeValidIsbn13() {
+        assertEquals(Optional.of("9780134685991"), Isbn.parse(" 978-0-13-468599-1 "));
+    }
+
+    @Test
+    void parse_ShouldConvertIsbn10ToIsbn13() {
+        assertEquals(Optional.of("9780804429573"), Isbn.parse("0-8044-2957-x"));
+        assertEquals(Optional.of("9780134685991"), Isbn.parse("0134685997"));
+    }
+
+    @Test
+    void parse_ShouldRejectBadChecksumsAndText() {
+        assertTrue(Isbn.parse("9780134685992").isEmpty());
+        assertTrue(Isbn.parse("Effective Java").isEmpty());
+        assertTrue(Isbn.parse(null).isEmpty());
+    }
+
+    @Test
+    void normalize_ShouldOnlyTrimNonIsbnValues() {
+        assertEquals("9780544003415", Isbn.normalize("978-0544003415"));
+        assertEquals("123-RING-456", Isbn.normalize(" 123-RING-456 "));
+        assertNull(Isbn.normalize("   "));
+    }
+}
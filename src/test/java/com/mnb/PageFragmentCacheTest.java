@@ -0,0 +1,117 @@
+package com.mnb.cache;
+
+import com.mnb.config.CacheConfig;
+import com.mnb.entity.Author;
+import com.mnb.entity.Book;
+import com.mnb.event.CatalogueChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.IContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PageFragmentCacheTest {
+
+    @Mock
+    private ITemplateEngine templateEngine;
+
+    private TableVersions tableVersions;
+
+    private PageFragmentCache fragmentCache;
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        tableVersions = new TableVersions();
+        fragmentCache = new PageFragmentCache(templateEngine, tableVersions, new ConcurrentMapCacheManager(CacheConfig.PAGE_FRAGMENTS));
+        when(templateEngine.process(eq("fragments/author-table"), anySet(), any(IContext.class)))
+                .thenAnswer(invocation -> "<table>" + invocation.<IContext>getArgument(2).getVariable("authors") + "</table>");
+        login("ROLE_USER");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void render_ShouldServeUnchangedTableFromCache() {
+        assertEquals("<table>1</table>", render());
+        assertEquals("<table>1</table>", render());
+
+        assertEquals(1, queries.get());
+        verify(templateEngine, times(1)).process(eq("fragments/author-table"), eq(Set.of("table")), any(IContext.class));
+    }
+
+    @Test
+    void render_ShouldRenderAgain_AfterTheTableChanged() {
+        render();
+        tableVersions.onCatalogueChanged(CatalogueChangedEvent.deleted(Author.class, 1));
+
+        assertEquals("<table>2</table>", render());
+    }
+
+    @Test
+    void render_ShouldIgnoreChangesToOtherTables() {
+        render();
+        tableVersions.onCatalogueChanged(CatalogueChangedEvent.bulk(Book.class));
+
+        assertEquals("<table>1</table>", render());
+    }
+
+    @Test
+    void render_ShouldRenderAgain_AfterAnyOfItsTablesChanged() {
+        assertEquals("<table>1</table>", renderWithBooks());
+        assertEquals("<table>1</table>", renderWithBooks());
+        tableVersions.onCatalogueChanged(CatalogueChangedEvent.bulk(Book.class));
+
+        assertEquals("<table>2</table>", renderWithBooks());
+    }
+
+    @Test
+    void render_ShouldKeepOneEntryPerRoleSet() {
+        render();
+        login("ROLE_USER", "ROLE_ADMIN");
+
+        assertEquals("<table>2</table>", render());
+        login("ROLE_USER");
+        assertEquals("<table>1</table>", render());
+    }
+
+    private String render() {
+        return fragmentCache.render("fragments/author-table", Author.class, "",
+                () -> Map.of("authors", queries.incrementAndGet()),
+                new MockHttpServletRequest("GET", "/author/list"), new MockHttpServletResponse());
+    }
+
+    private String renderWithBooks() {
+        return fragmentCache.render("fragments/author-table", List.of(Author.class, Book.class), "",
+                () -> Map.of("authors", queries.incrementAndGet()),
+                new MockHttpServletRequest("GET", "/author/list"), new MockHttpServletResponse());
+    }
+
+    private static void login(String... roles) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user", "password", roles));
+    }
+}
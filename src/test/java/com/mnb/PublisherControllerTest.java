@@ -1,6 +1,9 @@
 package com.mnb;
 
+import com.mnb.cache.ConditionalGet;
+import com.mnb.cache.PageFragmentCache;
 import com.mnb.controller.PublisherController;
+import com.mnb.dto.PublisherSummary;
 import com.mnb.entity.Publisher;
 import com.mnb.exception.NotFoundException;
 import com.mnb.service.PublisherService;
@@ -10,13 +13,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +35,12 @@ class PublisherControllerTest {
     @Mock
     private PublisherService publisherService;
 
+    @Mock
+    private PageFragmentCache fragmentCache;
+
+    @Mock
+    private ConditionalGet conditionalGet;
+
     @InjectMocks
     private PublisherController publisherController;
 
@@ -44,24 +58,25 @@ class PublisherControllerTest {
 
     @Test
     void listPublishers_ShouldReturnViewWithPublishers() throws Exception {
-        Publisher publisher2 = new Publisher();
-        publisher2.setId(2);
-        List<Publisher> publishers = Arrays.asList(publisher, publisher2);
-
-        when(publisherService.findAll()).thenReturn(publishers);
+        List<PublisherSummary> publishers = Arrays.asList(
+                new PublisherSummary(1, "Penguin Books", "Major international publisher"),
+                new PublisherSummary(2, "Vintage", null));
+
+        when(publisherService.findAllSummaries()).thenReturn(publishers);
+        Map<String, Object> tableModel = new HashMap<>();
+        when(fragmentCache.render(eq("fragments/publisher-table"), eq(Publisher.class), eq(""), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    tableModel.putAll(invocation.<Supplier<Map<String, Object>>>getArgument(3).get());
+                    return "<table></table>";
+                });
 
         mockMvc.perform(get("/publisher/list"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("list-publishers"))
-                .andExpect(model().attribute("publishers", hasSize(2)))
-                .andExpect(model().attribute("publishers", hasItem(
-                        allOf(
-                                hasProperty("id", is(1)),
-                                hasProperty("publisherName", is("Penguin Books"))
-                        )
-                )));
+                .andExpect(model().attribute("publisherTable", "<table></table>"));
 
-        verify(publisherService, times(1)).findAll();
+        assertThat(tableModel, hasEntry(is("publishers"), is(publishers)));
+        verify(publisherService, times(1)).findAllSummaries();
     }
 
     @Test
@@ -114,6 +129,17 @@ class PublisherControllerTest {
         verify(publisherService, times(1)).save(publisher);
     }
 
+    @Test
+    void savePublisher_ShouldReturnForm_OnConcurrentEdit() throws Exception {
+        doThrow(new ObjectOptimisticLockingFailureException(Publisher.class, 1)).when(publisherService).save(publisher);
+
+        mockMvc.perform(post("/publisher/save")
+                        .flashAttr("publishers", publisher))
+                .andExpect(status().isOk())
+                .andExpect(view().name("publisher-form"))
+                .andExpect(model().attribute("errorMessage", containsString("changed or deleted by someone else")));
+    }
+
     @Test
     void delete_ShouldRedirectToList() throws Exception {
         mockMvc.perform(get("/publisher/delete").param("publisherId", "1"))
@@ -125,14 +151,21 @@ class PublisherControllerTest {
 
     @Test
     void listPublishers_ShouldHandleEmptyList() throws Exception {
-        when(publisherService.findAll()).thenReturn(List.of());
+        when(publisherService.findAllSummaries()).thenReturn(List.of());
+        Map<String, Object> tableModel = new HashMap<>();
+        when(fragmentCache.render(eq("fragments/publisher-table"), eq(Publisher.class), eq(""), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    tableModel.putAll(invocation.<Supplier<Map<String, Object>>>getArgument(3).get());
+                    return "<table></table>";
+                });
 
         mockMvc.perform(get("/publisher/list"))
                 .andExpect(status().isOk())
-                .andExpect(view().name("list-publishers"))
-                .andExpect(model().attribute("publishers", empty()));
+                .andExpect(view().name("list-publishers"));
+
+        assertThat(tableModel, hasEntry(is("publishers"), is(List.of())));
 
-        verify(publisherService, times(1)).findAll();
+        verify(publisherService, times(1)).findAllSummaries();
     }
 
     @Test
@@ -148,4 +181,4 @@ class PublisherControllerTest {
 
         verify(publisherService, times(1)).save(emptyPublisher);
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -1,21 +1,30 @@
 package com.mnb;
 
+import com.mnb.dto.PublisherSummary;
 import com.mnb.entity.Publisher;
+import com.mnb.event.CatalogueChangedEvent;
 import com.mnb.exception.NotFoundException;
+import com.mnb.repository.BookRepository;
 import com.mnb.repository.PublisherRepository;
 import com.mnb.service.PublisherServiceImpl;
+import com.mnb.snapshot.CatalogueSnapshotStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +33,18 @@ class PublisherServiceImplTest {
     @Mock
     private PublisherRepository publisherRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CatalogueSnapshotStore snapshotStore;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private PublisherServiceImpl publisherService;
 
@@ -35,6 +56,7 @@ class PublisherServiceImplTest {
         publisher.setId(1);
         publisher.setPublisherName("Penguin Books");
         publisher.setDescription("Major international publisher");
+        publisher.setVersion(0);
     }
 
     @Test
@@ -51,6 +73,27 @@ class PublisherServiceImplTest {
         verify(publisherRepository, times(1)).findAll();
     }
 
+    @Test
+    void findAllSummaries_ShouldReturnProjections() {
+        List<PublisherSummary> expected = List.of(new PublisherSummary(1, "Penguin Books", "Major international publisher"));
+        when(publisherRepository.findAllSummaries()).thenReturn(expected);
+
+        List<PublisherSummary> result = publisherService.findAllSummaries();
+
+        assertEquals(expected, result);
+        verify(publisherRepository, never()).findAll();
+    }
+
+    @Test
+    void search_ShouldMatchTrimmedKeywordWithinTheResultLimit() {
+        List<PublisherSummary> expected = List.of(new PublisherSummary(1, "Penguin Books", null));
+        when(publisherRepository.searchSummaries("penguin", Limit.of(200))).thenReturn(expected);
+
+        assertEquals(expected, publisherService.search("  penguin "));
+        assertEquals(List.of(), publisherService.search(" "));
+        verify(publisherRepository, times(1)).searchSummaries(any(), any());
+    }
+
     @Test
     void findById_ShouldReturnPublisher_WhenPublisherExists() {
         when(publisherRepository.findById(1)).thenReturn(Optional.of(publisher));
@@ -93,10 +136,13 @@ class PublisherServiceImplTest {
         updatedPublisher.setId(1);
         updatedPublisher.setPublisherName("Updated Name");
         updatedPublisher.setDescription("Updated Description");
+        updatedPublisher.setVersion(3);
+
+        when(publisherRepository.updateVersioned(updatedPublisher)).thenReturn(1);
 
         publisherService.save(updatedPublisher);
 
-        verify(publisherRepository, times(1)).save(updatedPublisher);
+        verify(publisherRepository, times(1)).updateVersioned(updatedPublisher);
     }
 
     @Test
@@ -106,6 +152,54 @@ class PublisherServiceImplTest {
         verify(publisherRepository, times(1)).deleteById(1);
     }
 
+    @Test
+    void save_ShouldPublishChangeEvent() {
+        when(publisherRepository.updateVersioned(publisher)).thenReturn(1);
+
+        publisherService.save(publisher);
+
+        verify(eventPublisher, times(1)).publishEvent(CatalogueChangedEvent.saved(Publisher.class, 1, publisher));
+    }
+
+    @Test
+    void save_ShouldUpdateExistingPublisherWithOneVersionedStatement() {
+        publisher.setVersion(4);
+        when(publisherRepository.updateVersioned(publisher)).thenReturn(1);
+
+        publisherService.save(publisher);
+
+        assertEquals(5, publisher.getVersion());
+        verify(publisherRepository, never()).save(any());
+        verify(publisherRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    void save_ShouldReportConflict_WhenPublisherChangedSinceRead() {
+        publisher.setVersion(4);
+        when(publisherRepository.updateVersioned(publisher)).thenReturn(0);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> publisherService.save(publisher));
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void save_ShouldRejectAnEditWithoutVersion() {
+        publisher.setVersion(null);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> publisherService.save(publisher));
+
+        verify(publisherRepository, never()).updateVersioned(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void deleteById_ShouldPublishChangeEvent() {
+        publisherService.deleteById(1);
+
+        verify(eventPublisher, times(1)).publishEvent(CatalogueChangedEvent.deleted(Publisher.class, 1));
+    }
+
     @Test
     void deleteById_ShouldNotThrowException_WhenPublisherDoesNotExist() {
         doNothing().when(publisherRepository).deleteById(99);
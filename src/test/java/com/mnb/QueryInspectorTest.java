@@ -0,0 +1,90 @@
+package com.mnb.monitoring;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryInspectorTest {
+
+    private QueryInspectionProperties properties;
+    private QueryInspector inspector;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        properties = new QueryInspectionProperties();
+        properties.setRepeatedStatementThreshold(3);
+        inspector = new QueryInspector(properties);
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:inspector;DB_CLOSE_DELAY=-1");
+        DataSource dataSource = ProxyDataSourceBuilder.create(h2).listener(inspector).build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists author (id int primary key, name varchar(50))");
+    }
+
+    @Test
+    void end_ShouldCountStatementsAndReportRepeatedSql() {
+        inspector.begin();
+        jdbcTemplate.queryForList("select name from author");
+        for (int id = 1; id <= 4; id++) {
+            jdbcTemplate.queryForList("select name from author where id = ?", id);
+        }
+        RequestQueries queries = inspector.end();
+
+        assertEquals(5, queries.getStatements());
+        assertEquals(Map.of("select name from author where id = ?", 4), queries.repeated(3));
+    }
+
+    @Test
+    void statementsOutsideARequest_ShouldNotBeCollected() {
+        jdbcTemplate.queryForList("select name from author");
+
+        inspector.begin();
+        assertEquals(0, inspector.end().getStatements());
+    }
+
+    @Test
+    void filter_ShouldFailRequestsOverTheirBudget_WhenFailOnBudgetIsSet() {
+        properties.setFailOnBudget(true);
+        properties.getBudgets().put("GET /author/list", 2);
+        QueryInspectionFilter filter = new QueryInspectionFilter(inspector, properties);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/author/list");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/author/list");
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+                for (int id = 1; id <= 3; id++) {
+                    jdbcTemplate.queryForList("select name from author where id = ?", id);
+                }
+            }
+        });
+
+        StatementBudgetExceededException e = assertThrows(StatementBudgetExceededException.class,
+                () -> filter.doFilter(request, new MockHttpServletResponse(), chain));
+        assertEquals("GET /author/list executed 3 statements, the budget is 2", e.getMessage());
+    }
+
+    @Test
+    void filter_ShouldOnlyLog_WhenFailOnBudgetIsNotSet() {
+        properties.getBudgets().put("GET /author/list", 0);
+        QueryInspectionFilter filter = new QueryInspectionFilter(inspector, properties);
+        RequestQueries queries = new RequestQueries();
+        queries.add("select name from author");
+
+        assertDoesNotThrow(() -> filter.check("GET /author/list", queries));
+    }
+}
@@ -0,0 +1,150 @@
+package com.mnb;
+
+import com.mnb.cache.ReferenceDataCacheEvictor;
+import com.mnb.entity.Author;
+import com.mnb.entity.Book;
+import com.mnb.entity.Publisher;
+import com.mnb.event.CatalogueChangedEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the cache is only populated by committed data, so every step runs in its own transaction
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(ReferenceDataCacheEvictor.class)
+class ReferenceDataCacheTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ReferenceDataCacheEvictor cacheEvictor;
+
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+    private Integer authorId;
+    private Integer publisherId;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        Author author = new Author();
+        author.setAuthorName("Ursula K. Le Guin");
+        Publisher publisher = new Publisher();
+        publisher.setPublisherName("Ace Books");
+        inTransaction(em -> {
+            em.persist(author);
+            em.persist(publisher);
+        });
+        authorId = author.getId();
+        publisherId = publisher.getId();
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        inTransaction(em -> {
+            em.createQuery("delete from Book").executeUpdate();
+            em.createQuery("delete from Author").executeUpdate();
+            em.createQuery("delete from Publisher").executeUpdate();
+        });
+    }
+
+    @Test
+    void repeatedLookups_ShouldBeServedFromSecondLevelCache() {
+        load(Author.class, authorId);
+        load(Author.class, authorId);
+        load(Publisher.class, publisherId);
+        load(Publisher.class, publisherId);
+
+        assertEquals(2, statistics.getSecondLevelCacheHitCount());
+        assertEquals(2, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void savingAnAuthor_ShouldEvictItsCacheEntry() {
+        load(Author.class, authorId);
+
+        cacheEvictor.onCatalogueChanged(CatalogueChangedEvent.saved(Author.class, authorId, null));
+        load(Author.class, authorId);
+
+        assertEquals(0, statistics.getSecondLevelCacheHitCount());
+        assertEquals(2, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void deletingAPublisher_ShouldEvictItsCacheEntry() {
+        load(Publisher.class, publisherId);
+        assertTrue(sessionFactory.getCache().containsEntity(Publisher.class, publisherId));
+
+        cacheEvictor.onCatalogueChanged(CatalogueChangedEvent.deleted(Publisher.class, publisherId));
+
+        assertFalse(sessionFactory.getCache().containsEntity(Publisher.class, publisherId));
+    }
+
+    @Test
+    void savingABook_ShouldEvictCachedBookCollections() {
+        inTransaction(em -> em.find(Author.class, authorId).getBooksList().size());
+        assertTrue(sessionFactory.getCache().containsCollection(ReferenceDataCacheEvictor.AUTHOR_BOOKS_ROLE, authorId));
+
+        cacheEvictor.onCatalogueChanged(CatalogueChangedEvent.saved(Book.class, 1, new Book()));
+
+        assertFalse(sessionFactory.getCache().containsCollection(ReferenceDataCacheEvictor.AUTHOR_BOOKS_ROLE, authorId));
+    }
+
+    @Test
+    void bulkAuthorAssignment_ShouldNotLeaveStaleBookCollections() {
+        Book book = new Book();
+        book.setBookName("The Dispossessed");
+        inTransaction(em -> em.persist(book));
+        assertEquals(0, booksOfAuthor());
+        assertTrue(sessionFactory.getCache().containsCollection(ReferenceDataCacheEvictor.AUTHOR_BOOKS_ROLE, authorId));
+
+        // the statement of BookRepository.assignAuthor; Hibernate itself drops the regions it touches
+        inTransaction(em -> em.createQuery("update Book b set b.author = ?1, b.booksAuthor = ?2 where b.id in ?3")
+                .setParameter(1, em.getReference(Author.class, authorId))
+                .setParameter(2, "Ursula K. Le Guin")
+                .setParameter(3, List.of(book.getId()))
+                .executeUpdate());
+
+        assertEquals(1, booksOfAuthor());
+    }
+
+    private int booksOfAuthor() {
+        int[] size = new int[1];
+        inTransaction(em -> size[0] = em.find(Author.class, authorId).getBooksList().size());
+        return size[0];
+    }
+
+    private void load(Class<?> type, Integer id) {
+        inTransaction(em -> assertNotNull(em.find(type, id)));
+    }
+
+    private void inTransaction(Consumer<EntityManager> work) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            work.accept(em);
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.mnb.monitoring;
+
+import com.mnb.entity.Book;
+import com.mnb.exception.NotFoundException;
+import com.mnb.repository.BookRepository;
+import com.mnb.search.BookSearchIndex;
+import com.mnb.service.BookReferenceResolver;
+import com.mnb.service.BookService;
+import com.mnb.service.BookServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.mnb.snapshot.CatalogueSnapshotStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceMetricsAspectTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookSearchIndex searchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CatalogueSnapshotStore snapshotStore;
+
+    @Mock
+    private BookReferenceResolver referenceResolver;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private BookService bookService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(new BookServiceImpl(bookRepository, searchIndex, eventPublisher,
+                snapshotStore, referenceResolver, transactionManager));
+        factory.addAspect(new ServiceMetricsAspect(meterRegistry));
+        bookService = factory.getProxy();
+    }
+
+    @Test
+    void measure_ShouldTimeCallsAndRecordResultSize() {
+        when(bookRepository.findAll()).thenReturn(List.of(new Book(), new Book(), new Book()));
+
+        bookService.findAll();
+        bookService.findAll();
+
+        assertEquals(2, meterRegistry.get(ServiceMetricsAspect.TIMER)
+                .tags("class", "BookServiceImpl", "method", "findAll", "exception", "none").timer().count());
+        assertEquals(6, meterRegistry.get(ServiceMetricsAspect.RESULTS)
+                .tags("class", "BookServiceImpl", "method", "findAll").summary().totalAmount());
+    }
+
+    @Test
+    void measure_ShouldCountNotFoundLookups() {
+        when(bookRepository.findById(99)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> bookService.findById(99));
+
+        assertEquals(1, meterRegistry.get(ServiceMetricsAspect.NOT_FOUND)
+                .tags("class", "BookServiceImpl", "method", "findById").counter().count());
+        assertEquals(1, meterRegistry.get(ServiceMetricsAspect.TIMER)
+                .tags("method", "findById", "exception", "NotFoundException").timer().count());
+    }
+}
@@ -0,0 +1,89 @@
+package com.mnb.snapshot;
+
+import com.mnb.entity.Author;
+import com.mnb.entity.Book;
+import com.mnb.entity.Publisher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void read_ShouldReturnWhatWasWritten() throws Exception {
+        Path file = directory.resolve("catalogue.snapshot");
+
+        SnapshotFile.write(file, catalogue(), "BOOK:3:2000:42");
+        SnapshotFile.Stored stored = SnapshotFile.read(file);
+
+        assertEquals("BOOK:3:2000:42", stored.fingerprint());
+        CatalogueSnapshot snapshot = stored.snapshot();
+        assertEquals(3, snapshot.bookCount());
+        Book dune = snapshot.book(1).orElseThrow();
+        assertEquals("Dune", dune.getBookName());
+        assertNull(dune.getBookSubname());
+        assertEquals("Frank Herbert", dune.getAuthor().getAuthorName());
+        assertEquals("Chilton Books", dune.getPublisher().getPublisherName());
+        // a different segment, and text beyond ASCII
+        assertEquals("Die Blechtrommel – Günter Grass", snapshot.book(2000).orElseThrow().getBookName());
+        assertEquals(1, snapshot.authorSummaries().size());
+        assertFalse(Files.exists(directory.resolve("catalogue.snapshot.tmp")));
+    }
+
+    @Test
+    void write_ShouldReplaceTheFile() throws Exception {
+        Path file = directory.resolve("catalogue.snapshot");
+        SnapshotFile.write(file, catalogue(), "old");
+
+        SnapshotFile.write(file, catalogue().withoutBook(1), "new");
+
+        SnapshotFile.Stored stored = SnapshotFile.read(file);
+        assertEquals("new", stored.fingerprint());
+        assertEquals(2, stored.snapshot().bookCount());
+    }
+
+    @Test
+    void read_ShouldRejectDamagedFiles() throws Exception {
+        Path file = directory.resolve("catalogue.snapshot");
+        SnapshotFile.write(file, catalogue(), "v1");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 3] ^= 0x20;
+        Files.write(file, bytes);
+
+        IOException e = assertThrows(IOException.class, () -> SnapshotFile.read(file));
+        assertTrue(e.getMessage().startsWith("Checksum mismatch"));
+
+        Files.write(file, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> SnapshotFile.read(file));
+    }
+
+    private static CatalogueSnapshot catalogue() {
+        Author author = new Author();
+        author.setId(7);
+        author.setAuthorName("Frank Herbert");
+        Publisher publisher = new Publisher();
+        publisher.setId(9);
+        publisher.setPublisherName("Chilton Books");
+        return CatalogueSnapshot.EMPTY.withAuthor(author).withPublisher(publisher)
+                .withBook(book(1, "Dune", author, publisher))
+                .withBook(book(2, "Dune Messiah", author, null))
+                .withBook(book(2000, "Die Blechtrommel – Günter Grass", null, null));
+    }
+
+    private static Book book(int id, String name, Author author, Publisher publisher) {
+        Book book = new Book();
+        book.setId(id);
+        book.setBookName(name);
+        book.setAuthor(author);
+        book.setPublisher(publisher);
+        return book;
+    }
+}
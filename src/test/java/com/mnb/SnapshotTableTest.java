@@ -0,0 +1,82 @@
+package com.mnb.snapshot;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotTableTest {
+
+    @Test
+    void builder_ShouldStoreRowsAcrossSegments() {
+        SnapshotTable.Builder builder = SnapshotTable.builder(2, 1);
+        for (int id = 1; id <= 5000; id += 3) {
+            builder.add(id, new String[]{"Book " + id, id % 2 == 0 ? null : "odd"}, new int[]{id * 2});
+        }
+        SnapshotTable table = builder.build();
+
+        assertEquals(1667, table.size());
+        SnapshotTable.Row row = table.row(4999);
+        assertEquals("Book 4999", row.text(0));
+        assertEquals("odd", row.text(1));
+        assertEquals(9998, row.ref(0));
+        assertNull(table.row(4).text(1));
+        assertNull(table.row(2));
+        assertNull(table.row(100_000));
+        assertNull(table.row(-1));
+    }
+
+    @Test
+    void builder_ShouldRejectDescendingIds() {
+        SnapshotTable.Builder builder = SnapshotTable.builder(1, 0).add(5, new String[]{"a"}, new int[0]);
+
+        assertThrows(IllegalArgumentException.class, () -> builder.add(5, new String[]{"b"}, new int[0]));
+    }
+
+    @Test
+    void with_ShouldKeepTextExactly() {
+        SnapshotTable table = SnapshotTable.empty(3, 0)
+                .with(1, new String[]{"Çalıkuşu", "", null}, new int[0]);
+
+        assertEquals("Çalıkuşu", table.row(1).text(0));
+        assertEquals("", table.row(1).text(1));
+        assertNull(table.row(1).text(2));
+    }
+
+    @Test
+    void with_ShouldInsertAndReplaceWithoutChangingThePreviousVersion() {
+        SnapshotTable first = SnapshotTable.empty(1, 0)
+                .with(10, new String[]{"ten"}, new int[0])
+                .with(30, new String[]{"thirty"}, new int[0]);
+
+        SnapshotTable second = first.with(20, new String[]{"twenty"}, new int[0]).with(10, new String[]{"TEN"}, new int[0]);
+
+        assertEquals(List.of(10, 20, 30), ids(second));
+        assertEquals("TEN", second.row(10).text(0));
+        assertEquals(3, second.size());
+        assertEquals(List.of(10, 30), ids(first));
+        assertEquals("ten", first.row(10).text(0));
+    }
+
+    @Test
+    void without_ShouldRemoveTheRow() {
+        SnapshotTable table = SnapshotTable.empty(1, 0)
+                .with(1, new String[]{"one"}, new int[0])
+                .with(2000, new String[]{"two thousand"}, new int[0]);
+
+        SnapshotTable removed = table.without(2000);
+
+        assertEquals(List.of(1), ids(removed));
+        assertEquals(1, removed.size());
+        assertSame(removed, removed.without(2000));
+        assertEquals("two thousand", table.row(2000).text(0));
+    }
+
+    private static List<Integer> ids(SnapshotTable table) {
+        List<Integer> ids = new ArrayList<>();
+        table.forEach(row -> ids.add(row.id()));
+        return ids;
+    }
+}
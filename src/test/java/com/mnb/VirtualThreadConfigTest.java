@@ -0,0 +1,65 @@
+package com.mnb.config;
+
+import com.mnb.monitoring.PinnedThreadMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadConfigTest {
+
+    @Test
+    void checkPoolSizing_ShouldAcceptSmallPoolWithShortTimeout() {
+        assertDoesNotThrow(() -> VirtualThreadConfig.checkPoolSizing(pool(10, 5000), 10, Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void checkPoolSizing_ShouldRejectOversizedPool() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> VirtualThreadConfig.checkPoolSizing(pool(200, 5000), 10, Duration.ofSeconds(10)));
+        assertTrue(e.getMessage().contains("maximum-pool-size=200"));
+    }
+
+    @Test
+    void checkPoolSizing_ShouldRejectLongConnectionTimeout() {
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> VirtualThreadConfig.checkPoolSizing(pool(10, 30000), 10, Duration.ofSeconds(10)));
+        assertTrue(e.getMessage().contains("connection-timeout=30000"));
+    }
+
+    @Test
+    void pinnedThreadMonitor_ShouldCountVirtualThreadsBlockingInSynchronized() throws Exception {
+        PinnedThreadMonitor monitor = new PinnedThreadMonitor(new SimpleMeterRegistry(), Duration.ofMillis(10));
+        monitor.start();
+        try {
+            Object lock = new Object();
+            Thread.ofVirtual().start(() -> {
+                synchronized (lock) {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }).join();
+            // JFR hands events to the stream about once a second
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (monitor.pinnedCount() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+            assertTrue(monitor.pinnedCount() >= 1);
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    private static HikariDataSource pool(int maximumPoolSize, long connectionTimeout) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setMaximumPoolSize(maximumPoolSize);
+        pool.setConnectionTimeout(connectionTimeout);
+        return pool;
+    }
+}